@@ -1,27 +1,85 @@
 package asdpoo.binarytrees;
 
+import util.Trace;
+
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 
 /**
  * array class for binary heap implementation
  */
 public class BinaryHeap<T extends Comparable<? super T>> {
-	private static final Logger LOGGER = Logger.getLogger(BinaryHeap.class.getName());
+	// some VMs reserve header words in an array
+	private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
 
-	static {
-		LOGGER.setLevel(Level.SEVERE);
-	}
+	// smaller arrays are always heapified on one thread
+	static final int PARALLEL_BUILD_THRESHOLD = 1 << 17;
+	// subtrees of at most this height are heapified by one task
+	private static final int SEQUENTIAL_HEIGHT = 13;
 
 	private T[] array; // to store the heap
 	private int size;    // the number of elements in the heap
+
+	// a growable heap doubles its array instead of being full
+	private boolean growable = false;
+	// the array never grows beyond this capacity
+	private int maxCapacity = MAX_ARRAY_SIZE;
 	
 	// comparator to choose
 	private Comparator<T> comparator = Comparator.naturalOrder();
 
+	// optional index of the nodes of each element, null when disabled
+	private Map<T, Positions> index = null;
+	// for an indexed heap, the Positions of the element of each node
+	// and the rank of the node in these Positions
+	private Positions[] nodePositions;
+	private int[] nodeRanks;
+
+	// lazy deletion: the number of pending deletions of each element,
+	// null when delete is eager
+	private Map<T, Integer> tombstones = null;
+	private int dead = 0; // the number of pending deletions
+	// the heap is compacted when dead > maxDeadRatio * (number of nodes)
+	private double maxDeadRatio;
+
+	/**
+	 * The numbers of the nodes holding equal elements, in no order.
+	 */
+	private static final class Positions {
+		private int[] nodes = new int[1];
+		private int count = 0;
+
+		/**
+		 * Add node number n and return its rank.
+		 * Complexity: amortized THETA(1)
+		 */
+		int add(int n) {
+			if ( count == nodes.length )
+				nodes = Arrays.copyOf(nodes, 2*count);
+			nodes[count] = n;
+			return count++;
+		}
+
+		/**
+		 * Remove the node of rank rank: the last node takes its rank.
+		 * Return the number of the node which takes the rank.
+		 * Complexity: THETA(1)
+		 */
+		int remove(int rank) {
+			nodes[rank] = nodes[--count];
+			return nodes[rank];
+		}
+	}
+
 	///////////// Constructors
 	
 	/**
@@ -47,6 +105,33 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 		this.comparator = comparator;
 	}
 	
+	/**
+	 * Build a growable heap of initial capacity n.
+	 * The elements are ordered according to comparator.
+	 * The array doubles when the heap is full,
+	 * up to the maximal array size.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public BinaryHeap(int n, Comparator<T> comparator, boolean growable) {
+		this(n, comparator);
+		this.growable = growable;
+	}
+
+	/**
+	 * Build a growable heap of initial capacity n
+	 * that never holds more than maxCapacity elements.
+	 * The elements are ordered according to comparator.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public BinaryHeap(int n, Comparator<T> comparator, int maxCapacity) {
+		this(n, comparator, true);
+		if ( maxCapacity < n || maxCapacity > MAX_ARRAY_SIZE )
+			throw new IllegalArgumentException("maxCapacity must be in [" + n + ", " + MAX_ARRAY_SIZE + "]");
+		this.maxCapacity = maxCapacity;
+	}
+
 	/**
 	 * Build a heap based on array array.
 	 * The elements are ordered according to the
@@ -67,7 +152,41 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 		this.array = array;
 		this.size = array.length;
 		this.comparator = comparator;
-		buildHeap();
+		if ( size >= PARALLEL_BUILD_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1 )
+			ForkJoinPool.commonPool().invoke(new BuildTask(0));
+		else
+			buildHeap();
+	}
+
+	/**
+	 * Build a heap based on array array.
+	 * The elements are ordered according to comparator.
+	 * A large array is heapified by the tasks of pool.
+	 * The heap is full
+	 * Complexity: O(size), O(size/p + log(size)^2) on p processors
+	 */
+	public BinaryHeap(T[] array, Comparator<T> comparator, ForkJoinPool pool) {
+		this.array = array;
+		this.size = array.length;
+		this.comparator = comparator;
+		if ( size >= PARALLEL_BUILD_THRESHOLD )
+			pool.invoke(new BuildTask(0));
+		else
+			buildHeap();
+	}
+
+	/**
+	 * Build a heap of capacity array.length on the size first
+	 * elements of array, which already have the heap property.
+	 * It restores a snapshot without rebuilding the heap.
+	 * Complexity: THETA(1)
+	 */
+	BinaryHeap(T[] array, int size, Comparator<T> comparator, boolean growable, int maxCapacity) {
+		this.array = array;
+		this.size = size;
+		this.comparator = comparator;
+		this.growable = growable;
+		this.maxCapacity = maxCapacity;
 	}
 	
 	///////////// Private methods
@@ -78,9 +197,52 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 	 * Complexity: THETA(1)
 	 */
 	private void swap(int i, int j) {
+		if ( Trace.ENABLED )
+			Trace.record(Trace.Kind.SWAP, i, j);
 		T tmp = array[i];
 		array[i] = array[j];
 		array[j] = tmp;
+		if ( index != null ) {
+			Positions positions = nodePositions[i];
+			int rank = nodeRanks[i];
+			setNode(i, nodePositions[j], nodeRanks[j]);
+			setNode(j, positions, rank);
+		}
+	}
+
+	/**
+	 * Record in the index that node number n holds
+	 * the element of the given positions and rank.
+	 * Complexity: THETA(1)
+	 */
+	private void setNode(int n, Positions positions, int rank) {
+		nodePositions[n] = positions;
+		nodeRanks[n] = rank;
+		positions.nodes[rank] = n;
+	}
+
+	/**
+	 * Add node number n to the index.
+	 * Complexity: amortized THETA(1)
+	 */
+	private void indexNode(int n) {
+		Positions positions = index.computeIfAbsent(array[n], k -> new Positions());
+		nodePositions[n] = positions;
+		nodeRanks[n] = positions.add(n);
+	}
+
+	/**
+	 * Remove node number n from the index.
+	 * Complexity: THETA(1)
+	 */
+	private void unindexNode(int n) {
+		Positions positions = nodePositions[n];
+		int moved = positions.remove(nodeRanks[n]);
+		if ( moved != n )
+			nodeRanks[moved] = nodeRanks[n];
+		if ( positions.count == 0 )
+			index.remove(array[n]);
+		nodePositions[n] = null;
 	}
 	 
 	/**
@@ -115,7 +277,8 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 	 * Complexity: O(log(size))
 	 */
 	private void percolateDown(int n) {
-		LOGGER.log(Level.INFO,"Percolate down : {0}" , array[n]);
+		if ( Trace.ENABLED )
+			Trace.record(Trace.Kind.SIFT, n, size);
 		int left = leftIndex(n);
 		int right = rightIndex(n);
 		int indexToPercolateDown = n;
@@ -131,18 +294,62 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 		
 	/**
 	 * Percolate up the element of node number n
+	 * If the comparator throws, the element is still inserted,
+	 * so the nodes remain a permutation of the elements.
 	 * Complexity: O(log(size))
 	 */
 	private void percolateUp(int n) {
 		T e = array[n];
-		while ( n > 0 && n < size() && comparator.compare(e, array[parentIndex(n)]) > 0 ) {
-			//while the element is greater than the parent of the node of index n
-			array[n] = array[parentIndex(n)]; //move the parent down
-			n = parentIndex(n);
+		Positions positions = index == null ? null : nodePositions[n];
+		int rank = index == null ? 0 : nodeRanks[n];
+		try {
+			while ( n > 0 && n < size && comparator.compare(e, array[parentIndex(n)]) > 0 ) {
+				//while the element is greater than the parent of the node of index n
+				array[n] = array[parentIndex(n)]; //move the parent down
+				if ( index != null )
+					setNode(n, nodePositions[parentIndex(n)], nodeRanks[parentIndex(n)]);
+				n = parentIndex(n);
+			}
+		} finally {
+			array[n] = e; //insert the element in the right place
+			if ( index != null )
+				setNode(n, positions, rank);
+		}
+	}
+
+	/**
+	 * Delete the element of node number n:
+	 * the last element takes its place and is percolated.
+	 * Complexity: O(log(size))
+	 */
+	private void deleteByIndex(int n) {
+		if ( index != null )
+			unindexNode(n);
+		array[n] = array[--size];
+		array[size] = null; //added for garbage collection
+		if ( n < size ) {
+			if ( index != null ) {
+				setNode(n, nodePositions[size], nodeRanks[size]);
+				nodePositions[size] = null;
+			}
+			percolateUp(n);
+			percolateDown(n);
 		}
-		array[n] = e; //insert the element in the right place
 	}
 	
+	/**
+	 * Reallocate the array with capacity newCapacity.
+	 * Precondition: size <= newCapacity
+	 * Complexity: THETA(size)
+	 */
+	private void resize(int newCapacity) {
+		array = Arrays.copyOf(array, newCapacity);
+		if ( index != null ) {
+			nodePositions = Arrays.copyOf(nodePositions, newCapacity);
+			nodeRanks = Arrays.copyOf(nodeRanks, newCapacity);
+		}
+	}
+
 	/**
 	 * Arrange the elements in array such
 	 * that it has the heap property.
@@ -153,15 +360,121 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 			percolateDown(i);
 	}
 	
+	/**
+	 * Arrange the elements of the subtree of node number root
+	 * such that it has the heap property, level by level
+	 * from its deepest internal nodes up to root.
+	 * Complexity: O(n) where n is the size of the subtree
+	 */
+	private void buildSubtree(int root) {
+		int last = parentIndex(size - 1);
+		int first = root; // the first node of a level of the subtree
+		int width = 1;    // the number of nodes of this level
+		while ( 2*first + 1 <= last ) {
+			first = 2*first + 1;
+			width *= 2;
+		}
+		for ( ; width > 0; first = parentIndex(first), width /= 2 )
+			for (int i = Math.min(first + width - 1, last); i >= first; i-- )
+				percolateDown(i);
+	}
+
+	/**
+	 * Task which arranges the subtree of a node such that it has
+	 * the heap property: the two subtrees of the node are independent,
+	 * so they are built in parallel, then the node is percolated down.
+	 * The subtrees of small height are built by buildSubtree.
+	 */
+	private final class BuildTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int root;
+
+		BuildTask(int root) {
+			this.root = root;
+		}
+
+		@Override
+		protected void compute() {
+			if ( ((long) root + 1 << SEQUENTIAL_HEIGHT) - 1 >= size ) // height < SEQUENTIAL_HEIGHT
+				buildSubtree(root);
+			else {
+				invokeAll(new BuildTask(leftIndex(root)), new BuildTask(rightIndex(root)));
+				percolateDown(root);
+			}
+		}
+	}
+
+	/**
+	 * Restore the heap property after the elements of
+	 * nodes number lo to hi have been appended to a heap.
+	 * Only the ancestors of the new nodes are percolated down,
+	 * level by level, as in buildHeap.
+	 * Precondition: hi - lo < lo (the new nodes are leaves)
+	 * Complexity: O(k + log(size)^2) where k = hi - lo + 1
+	 */
+	private void buildHeap(int lo, int hi) {
+		while ( lo > 0 ) {
+			lo = parentIndex(lo);
+			hi = parentIndex(hi);
+			for (int i = hi; i >= lo; i-- )
+				percolateDown(i);
+		}
+	}
+
+	/**
+	 * Restore the heap property after k elements
+	 * have been appended to a heap of oldSize elements.
+	 * A small batch is percolated up element by element,
+	 * a batch as large as the heap is handled by buildHeap,
+	 * and the ancestors of a medium batch are rebuilt.
+	 * Complexity: O(min(k.log(size), k + log(size)^2))
+	 */
+	private void heapifyAppended(int oldSize) {
+		int k = size - oldSize;
+		if ( k >= oldSize )
+			buildHeap();
+		else if ( k <= 32 - Integer.numberOfLeadingZeros(oldSize) ) // k <= log2(oldSize) + 1
+			for (int i = oldSize; i < size; i++ )
+				percolateUp(i);
+		else
+			buildHeap(oldSize, size - 1);
+	}
+
+	/**
+	 * Add the nodes appended after the oldSize first ones to the index.
+	 * Complexity: THETA(size - oldSize)
+	 */
+	private void indexAppended(int oldSize) {
+		if ( index != null )
+			for (int i = oldSize; i < size; i++ )
+				indexNode(i);
+	}
+
+	/**
+	 * Make sure k more elements fit in the heap.
+	 * Complexity: O(size)
+	 */
+	private void ensureRoomFor(int k) throws FullHeapException {
+		if ( k > array.length - size )
+			compact(); // make room by removing the tombstones
+		if ( k > array.length - size ) {
+			if ( !growable || k > maxCapacity - size )
+				throw new FullHeapException();
+			ensureCapacity(size + k);
+		}
+	}
+
 	///////////// Public methods
 
 	/**
 	 * Return the size of the heap
 	 * (the number of elements in the heap).
+	 * With lazy deletion, the deleted elements
+	 * which are still in the array are not counted.
 	 * Complexity: THETA(1)
 	 */
 	public int size() {
-		return size;
+		return size - dead;
 	}
 
 	/**
@@ -169,16 +482,212 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 	 * Complexity: THETA(1)
 	 */
 	public boolean isEmpty() {
-		return size == 0;
+		return size == dead;
+	}
+
+	/**
+	 * Return the number of deleted elements which
+	 * are still in the array (always 0 with eager deletion).
+	 * Complexity: THETA(1)
+	 */
+	public int deadCount() {
+		return dead;
 	}
 	
 	/**
-	 * Return the extreme element.
+	 * Return the capacity of the heap
+	 * (the length of its array).
+	 * Complexity: THETA(1)
+	 */
+	public int capacity() {
+		return array.length;
+	}
+
+	/**
+	 * Check if the heap grows when it is full.
 	 * Complexity: THETA(1)
 	 */
+	public boolean isGrowable() {
+		return growable;
+	}
+
+	/**
+	 * Return the capacity beyond which a growable heap is full.
+	 * Complexity: THETA(1)
+	 */
+	int maxCapacity() {
+		return maxCapacity;
+	}
+
+	/**
+	 * Make sure the heap can hold minCapacity elements.
+	 * The capacity is at least doubled so that a sequence
+	 * of add costs amortized THETA(1) copies per element.
+	 * Throw FullHeapException if minCapacity is over the maximal capacity.
+	 * Complexity: O(size)
+	 */
+	public void ensureCapacity(int minCapacity) throws FullHeapException {
+		if ( minCapacity <= array.length )
+			return;
+		if ( minCapacity > maxCapacity )
+			throw new FullHeapException();
+		int newCapacity = Math.max(array.length, 1) * 2;
+		if ( newCapacity < 0 || newCapacity > maxCapacity ) //overflow or over the cap
+			newCapacity = maxCapacity;
+		resize(Math.max(newCapacity, minCapacity));
+	}
+
+	/**
+	 * Reduce the capacity of the heap to its size.
+	 * Complexity: THETA(size)
+	 */
+	public void trimToSize() {
+		if ( size < array.length )
+			resize(size);
+	}
+
+	/**
+	 * Index the nodes of each element, so that contains and count
+	 * take THETA(1), isLeaf(t) only visits the nodes of t, and
+	 * deleteAll only touches the nodes of the deleted element.
+	 * The index is then kept up to date by every operation.
+	 * The elements must have equals and hashCode consistent with compareTo.
+	 * Complexity: THETA(size)
+	 */
+	public void enableIndex() {
+		if ( index != null )
+			return;
+		index = new HashMap<>();
+		nodePositions = new Positions[array.length];
+		nodeRanks = new int[array.length];
+		for (int i = 0; i < size; i++ )
+			indexNode(i);
+	}
+
+	/**
+	 * Check if the nodes of each element are indexed.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isIndexed() {
+		return index != null;
+	}
+
+	/**
+	 * Make delete lazy: a deleted element is only recorded as a
+	 * tombstone, and it is removed when it reaches the root.
+	 * The heap is compacted once the tombstones are more than
+	 * maxDeadRatio of its nodes.
+	 * The index is enabled too, so that checking that a deleted
+	 * element is in the heap is THETA(1) instead of a scan.
+	 * The elements must have equals and hashCode consistent with compareTo.
+	 * Complexity: THETA(size) to build the index, THETA(1) if the heap is indexed
+	 */
+	public void enableLazyDeletion(double maxDeadRatio) {
+		if ( !(maxDeadRatio > 0 && maxDeadRatio <= 1) )
+			throw new IllegalArgumentException("maxDeadRatio must be in ]0, 1]");
+		this.maxDeadRatio = maxDeadRatio;
+		enableIndex();
+		if ( tombstones == null )
+			tombstones = new HashMap<>();
+	}
+
+	/**
+	 * Check if delete is lazy.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isLazy() {
+		return tombstones != null;
+	}
+
+	/**
+	 * Remove all the elements which are lazily deleted
+	 * and rebuild the heap.
+	 * Complexity: O(size) if there are tombstones, THETA(1) otherwise
+	 */
+	public void compact() {
+		if ( dead == 0 )
+			return;
+		boolean indexed = index != null;
+		index = null; // the index is rebuilt on the remaining nodes
+		int kept = 0;
+		for (int i = 0; i < size; i++ ) {
+			Integer n = tombstones.get(array[i]);
+			if ( n == null )
+				array[kept++] = array[i];
+			else if ( n == 1 )
+				tombstones.remove(array[i]);
+			else
+				tombstones.put(array[i], n - 1);
+		}
+		Arrays.fill(array, kept, size, null); //added for garbage collection
+		size = kept;
+		dead = 0;
+		tombstones.clear(); // the tombstones of elements which are no longer in the heap
+		buildHeap();
+		if ( indexed )
+			enableIndex();
+	}
+
+	/**
+	 * Undo an operation interrupted by the comparator: remove the
+	 * elements of added (found by identity), put back the elements
+	 * of removed, and rebuild the heap. The percolations only move
+	 * whole elements, so the nodes are a permutation of the elements.
+	 * Precondition: removed fits in the heap (it was just deleted)
+	 * Complexity: O(size + k) where k is the size of added
+	 */
+	void rollBack(Collection<? extends T> added, Collection<? extends T> removed) {
+		Map<T, Integer> rejected = new IdentityHashMap<>();
+		for (T e : added)
+			rejected.merge(e, 1, Integer::sum);
+		boolean indexed = index != null;
+		index = null; // the index is rebuilt on the remaining nodes
+		int kept = 0;
+		for (int i = 0; i < size; i++ ) {
+			Integer n = rejected.get(array[i]);
+			if ( n == null )
+				array[kept++] = array[i];
+			else if ( n == 1 )
+				rejected.remove(array[i]);
+			else
+				rejected.put(array[i], n - 1);
+		}
+		Arrays.fill(array, kept, size, null); //added for garbage collection
+		size = kept;
+		for (T e : removed)
+			array[size++] = e;
+		if ( indexed )
+			enableIndex();
+		buildHeap();
+	}
+
+	/**
+	 * Remove the lazily deleted elements from the root
+	 * until it holds a live element or the heap is empty.
+	 * Complexity: O(k.log(size)) for k removed tombstones
+	 */
+	private void purgeRoot() {
+		while ( dead > 0 && size > 0 ) {
+			Integer n = tombstones.get(array[0]);
+			if ( n == null )
+				return;
+			if ( n == 1 )
+				tombstones.remove(array[0]);
+			else
+				tombstones.put(array[0], n - 1);
+			dead--;
+			deleteByIndex(0);
+		}
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1), O(log(size)) amortized with lazy deletion
+	 */
 	public T extreme() throws EmptyHeapException {
-		if ( size == 0 )
+		if ( isEmpty() )
 			throw new EmptyHeapException();
+		purgeRoot();
 		return array[0];
 	}
 	
@@ -187,48 +696,157 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 	 * Complexity: O(log(size))
 	 */
 	public T deleteExtreme() throws EmptyHeapException {
-		if ( size == 0 )
-			throw new EmptyHeapException();		
-		T extreme = array[0];
-		array[0] = array[--size];
-		array[size] = null; //added for garbage collection
-		if ( size > 0 )
-			percolateDown(0);
+		T extreme = extreme();
+		deleteByIndex(0);
 		return extreme;
 	}
 	
+	/**
+	 * Replace the extreme element by e and return it.
+	 * Cheaper than deleteExtreme followed by add.
+	 * Complexity: O(log(size))
+	 */
+	public T replaceExtreme(T e) throws EmptyHeapException {
+		T extreme = extreme();
+		if ( index != null )
+			unindexNode(0);
+		array[0] = e;
+		if ( index != null )
+			indexNode(0);
+		percolateDown(0);
+		return extreme;
+	}
+
 	/**
 	 * Add a new element in the heap
 	 * Complexity: O(log(size))
 	 */
 	public void add(T e) throws FullHeapException {
 		if ( size == array.length )
-			throw new FullHeapException();		
+			compact(); // make room by removing the tombstones
+		if ( size == array.length ) {
+			if ( !growable )
+				throw new FullHeapException();
+			ensureCapacity(size + 1);
+		}
 		array[size++] = e;
+		if ( index != null )
+			indexNode(size-1);
 		percolateUp(size-1);
 	}
 	
+	/**
+	 * Add all the elements of batch in the heap.
+	 * Nothing is added if the batch does not fit in the heap.
+	 * Complexity: O(size + k) and O(k.log(size)) for a small batch,
+	 * where k is the length of batch
+	 */
+	public void addAll(T[] batch) throws FullHeapException {
+		ensureRoomFor(batch.length);
+		int oldSize = size;
+		System.arraycopy(batch, 0, array, size, batch.length);
+		size += batch.length;
+		indexAppended(oldSize);
+		heapifyAppended(oldSize);
+	}
+
+	/**
+	 * Add all the elements of batch in the heap.
+	 * Nothing is added if the batch does not fit in the heap.
+	 * Complexity: O(size + k) and O(k.log(size)) for a small batch,
+	 * where k is the size of batch
+	 */
+	public void addAll(Collection<? extends T> batch) throws FullHeapException {
+		ensureRoomFor(batch.size());
+		int oldSize = size;
+		for (T e : batch)
+			array[size++] = e;
+		indexAppended(oldSize);
+		heapifyAppended(oldSize);
+	}
+
+	/**
+	 * Delete the min(max, size, dest.length) first elements
+	 * of the heap and store them in dest, the extreme first.
+	 * Return the number of deleted elements.
+	 * Complexity: O(k.log(size)) where k is the number of deleted elements
+	 */
+	public int drainTo(T[] dest, int max) {
+		int k = Math.min(Math.min(max, size()), dest.length);
+		for (int i = 0; i < k; i++ ) {
+			purgeRoot();
+			dest[i] = array[0];
+			deleteByIndex(0);
+		}
+		return Math.max(k, 0);
+	}
+
+	/**
+	 * Return a spliterator over the elements of the heap,
+	 * in the order of the array (not in the order of the heap).
+	 * It is SIZED and splits in halves of the array, so it suits
+	 * parallel streams: StreamSupport.stream(heap.spliterator(), true).
+	 * The heap must not be modified during the traversal.
+	 * The heap is compacted first if it has lazily deleted elements.
+	 * Complexity: THETA(1), O(size) to compact
+	 */
+	public Spliterator<T> spliterator() {
+		compact();
+		return Spliterators.spliterator(array, 0, size, Spliterator.NONNULL);
+	}
+
 	///////////// Part 3: deleting in the heap
 	
 	/**
 	 * Delete the element e from the heap.
-	 * Complexity: O(size)
+	 * With lazy deletion, one occurrence of e is deleted: it becomes a
+	 * tombstone unless it is at the root. Nothing is deleted if e is
+	 * not in the heap.
+	 * Complexity: O(size), O(1) amortized with lazy deletion
+	 * (O(log(size)) if e is at the root)
 	 */
 	public void delete(T e) {
+		if ( tombstones != null ) {
+			deleteLazily(e);
+			return;
+		}
 		for ( int i = 0; i < size; i++ )
-			if ( array[i].compareTo(e) == 0 ) {
-				array[i] = array[--size];
-				array[size] = null; //added for garbage collection
-				percolateUp(i);
-				percolateDown(i);
-			} 
+			if ( array[i].compareTo(e) == 0 )
+				deleteByIndex(i);
 	}
 	
+	/**
+	 * Record a lazy deletion of e, if e is in the heap.
+	 * Precondition: the heap is indexed (see enableLazyDeletion)
+	 * Complexity: O(1) amortized (O(log(size)) if e is at the root)
+	 */
+	private void deleteLazily(T e) {
+		if ( count(e) == 0 )
+			return;
+		purgeRoot();
+		if ( size > 0 && array[0].equals(e) ) {
+			deleteByIndex(0);
+			return;
+		}
+		tombstones.merge(e, 1, Integer::sum);
+		dead++;
+		if ( dead > maxDeadRatio * size )
+			compact();
+	}
+
 	/**
 	 * Delete all the elements e from the heap.
-	 * Complexity: O(size)
+	 * Complexity: O(size), O(k.log(size)) for an indexed heap
+	 * where k is the number of elements e
 	 */	
 	public void deleteAll(T e) {
+		if ( index != null ) {
+			Positions positions;
+			while ( (positions = index.get(e)) != null )
+				deleteByIndex(positions.nodes[positions.count - 1]);
+			forgetTombstones(e);
+			return;
+		}
 		int i = 0;
 		while ( i < size )
 			if ( array[i].compareTo(e) == 0 ) {
@@ -238,6 +856,19 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 			else
 				i++;
 		buildHeap();
+		forgetTombstones(e);
+	}
+
+	/**
+	 * Forget the lazy deletions of e once all the elements e are removed.
+	 * Complexity: THETA(1)
+	 */
+	private void forgetTombstones(T e) {
+		if ( tombstones != null ) {
+			Integer n = tombstones.remove(e);
+			if ( n != null )
+				dead -= n;
+		}
 	}
 
 	/**
@@ -271,7 +902,58 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 		return bld.toString();
 	}
 
+	/**
+	 * Check if the element t is in the heap.
+	 * Complexity: THETA(1) for an indexed heap, O(size) otherwise
+	 */
+	public boolean contains(T t) {
+		if ( tombstones != null )
+			return count(t) > 0;
+		if ( index != null )
+			return index.containsKey(t);
+		return find(t, 0) != -1;
+	}
+
+	/**
+	 * Return the number of occurrences of the element t in the heap.
+	 * Complexity: THETA(1) for an indexed heap, THETA(size) otherwise
+	 */
+	public int count(T t) {
+		if ( index != null ) {
+			Positions positions = index.get(t);
+			return positions == null ? 0 : positions.count - tombstonesOf(t);
+		}
+		int count = 0;
+		for (int i = 0; i < size; i++ )
+			if ( array[i].equals(t) )
+				count++;
+		return count - tombstonesOf(t);
+	}
+
+	/**
+	 * Return the number of lazy deletions of t.
+	 * Complexity: THETA(1)
+	 */
+	private int tombstonesOf(T t) {
+		return tombstones == null ? 0 : tombstones.getOrDefault(t, 0);
+	}
+
+	/**
+	 * Check if the element t is in a leaf.
+	 * For an indexed heap, check if one of its occurrences is in a leaf:
+	 * the nodes of t are visited until a leaf is found, so the cost is
+	 * THETA(1) for a distinct element but grows with its duplicates.
+	 * Complexity: O(count(t)) for an indexed heap, O(size) otherwise
+	 */
 	public boolean isLeaf(T t) {
+		if ( index != null ) {
+			Positions positions = index.get(t);
+			if ( positions != null )
+				for (int r = 0; r < positions.count; r++ )
+					if ( isLeafByIndex(positions.nodes[r]) )
+						return true;
+			return false;
+		}
 		int i = find(t, 0);
 		if (i == -1) {
 			return false;
@@ -280,7 +962,8 @@ public class BinaryHeap<T extends Comparable<? super T>> {
 	}
 
 	private int find(T t, int from) {
-		LOGGER.log(Level.INFO,	() -> "Searching for " + t + " from "+ from);
+		if ( Trace.ENABLED )
+			Trace.record(Trace.Kind.FIND, from, size);
 		if (from < size) {
 			if (array[from].equals(t)) {
 				return from; // found
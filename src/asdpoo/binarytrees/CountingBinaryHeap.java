@@ -0,0 +1,280 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * array class for binary heap implementation
+ * storing each distinct element once with its number of occurrences.
+ * Adding an element which is already in the heap only increments its
+ * count, and deleteExtreme only decrements the count of the extreme
+ * element until its last occurrence: the memory and the percolate work
+ * depend on the number d of distinct elements, not on the size.
+ * An index from each distinct element to its node number finds
+ * the node of an element.
+ * Equal elements (according to equals) are considered the same,
+ * so equals and hashCode must be consistent with the order.
+ */
+public class CountingBinaryHeap<T extends Comparable<? super T>> {
+
+	private T[] array;    // the distinct elements
+	private int[] counts; // the number of occurrences of each node
+	private int distinct; // the number of distinct elements in the heap
+	private int size;     // the number of elements in the heap
+
+	// the node number of each element in the heap
+	private final Map<T, Integer> positions = new HashMap<>();
+
+	// comparator to choose
+	private Comparator<T> comparator = Comparator.naturalOrder();
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n distinct elements.
+	 * The elements are ordered according to the
+	 * natural order on T.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public CountingBinaryHeap(int n) {
+		@SuppressWarnings("unchecked") // the erasure of T is Comparable
+		T[] array = (T[]) new Comparable<?>[n];
+		this.array = array;
+		counts = new int[n];
+		distinct = 0;
+		size = 0;
+	}
+
+	/**
+	 * Build a heap of capacity n distinct elements.
+	 * The elements are ordered according to comparator.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public CountingBinaryHeap(int n, Comparator<T> comparator) {
+		this(n);
+		this.comparator = comparator;
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Return the number of the parentIndex
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/2;
+	}
+
+	/**
+	 * Store the element e, which occurs count times, in node number n.
+	 * Complexity: THETA(1)
+	 */
+	private void set(int n, T e, int count) {
+		array[n] = e;
+		counts[n] = count;
+		positions.put(e, n);
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(distinct))
+	 */
+	private void percolateDown(int n) {
+		T e = array[n];
+		int count = counts[n];
+		int child = 2*n + 1;
+		while ( child < distinct ) {
+			int right = child + 1;
+			if ( right < distinct && comparator.compare(array[right], array[child]) > 0 )
+				child = right;
+			if ( comparator.compare(array[child], e) <= 0 )
+				break;
+			set(n, array[child], counts[child]); //move the child up
+			n = child;
+			child = 2*n + 1;
+		}
+		set(n, e, count); //insert the element in the right place
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log(distinct))
+	 */
+	private void percolateUp(int n) {
+		T e = array[n];
+		int count = counts[n];
+		while ( n > 0 && comparator.compare(e, array[parentIndex(n)]) > 0 ) {
+			set(n, array[parentIndex(n)], counts[parentIndex(n)]); //move the parent down
+			n = parentIndex(n);
+		}
+		set(n, e, count); //insert the element in the right place
+	}
+
+	/**
+	 * Delete all the occurrences of the element of node number n.
+	 * Complexity: O(log(distinct))
+	 */
+	private void deleteByIndex(int n) {
+		size -= counts[n];
+		positions.remove(array[n]);
+		distinct--;
+		if ( n < distinct ) {
+			set(n, array[distinct], counts[distinct]);
+			percolateUp(n);
+			percolateDown(n);
+		}
+		array[distinct] = null; //added for garbage collection
+	}
+
+	/**
+	 * Remove one occurrence of the element of node number n.
+	 * Complexity: THETA(1), O(log(distinct)) for its last occurrence
+	 */
+	private void decrement(int n) {
+		if ( counts[n] == 1 )
+			deleteByIndex(n);
+		else {
+			counts[n]--;
+			size--;
+		}
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap, with their repetitions).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Return the number of distinct elements in the heap.
+	 * Complexity: THETA(1)
+	 */
+	public int distinctSize() {
+		return distinct;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the number of occurrences of e in the heap.
+	 * Complexity: THETA(1)
+	 */
+	public int count(T e) {
+		Integer n = positions.get(e);
+		return n == null ? 0 : counts[n];
+	}
+
+	/**
+	 * Check if e is in the heap.
+	 * Complexity: THETA(1)
+	 */
+	public boolean contains(T e) {
+		return positions.containsKey(e);
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[0];
+	}
+
+	/**
+	 * Return and delete one occurrence of the extreme element.
+	 * Complexity: THETA(1), O(log(distinct)) for its last occurrence
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		T extreme = extreme();
+		decrement(0);
+		return extreme;
+	}
+
+	/**
+	 * Add a new element in the heap.
+	 * Throw FullHeapException if e is not in the heap
+	 * and the heap holds n distinct elements.
+	 * Complexity: THETA(1) if e is in the heap, O(log(distinct)) otherwise
+	 */
+	public void add(T e) throws FullHeapException {
+		add(e, 1);
+	}
+
+	/**
+	 * Add count occurrences of the element e in the heap.
+	 * Complexity: THETA(1) if e is in the heap, O(log(distinct)) otherwise
+	 */
+	public void add(T e, int count) throws FullHeapException {
+		if ( count <= 0 )
+			throw new IllegalArgumentException("count must be positive");
+		if ( count > Integer.MAX_VALUE - size )
+			throw new FullHeapException();
+		Integer n = positions.get(e);
+		if ( n != null )
+			counts[n] += count;
+		else {
+			if ( distinct == array.length )
+				throw new FullHeapException();
+			set(distinct++, e, count);
+			percolateUp(distinct-1);
+		}
+		size += count;
+	}
+
+	/**
+	 * Delete one occurrence of the element e from the heap.
+	 * Complexity: THETA(1), O(log(distinct)) for its last occurrence
+	 */
+	public void delete(T e) {
+		Integer n = positions.get(e);
+		if ( n != null )
+			decrement(n);
+	}
+
+	/**
+	 * Delete all the occurrences of the element e from the heap.
+	 * Complexity: O(log(distinct))
+	 */
+	public void deleteAll(T e) {
+		Integer n = positions.get(e);
+		if ( n != null )
+			deleteByIndex(n);
+	}
+
+	/**
+	 * Return the array of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the heap
+	 */
+	protected T[] getArray() {
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "CountingBinaryHeap{" +
+				"array=" + Arrays.toString(Arrays.copyOf(array, distinct)) +
+				", counts=" + Arrays.toString(Arrays.copyOf(counts, distinct)) +
+				", size=" + size +
+				'}';
+	}
+}
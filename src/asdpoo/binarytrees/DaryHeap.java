@@ -0,0 +1,303 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * array class for d-ary heap implementation.
+ * Each node has up to d children stored next to each other:
+ * the children of node n are the nodes d*n+1 to d*n+d.
+ * With d = 4 or d = 8 the tree is shallower than a binary heap
+ * and the children of a node often share a cache line, which pays off
+ * when deleteExtreme dominates. add becomes cheaper (fewer levels)
+ * while deleteExtreme does d-1 comparisons per level instead of 1.
+ */
+public class DaryHeap<T extends Comparable<? super T>> {
+
+	private final int arity; // the number of children of each node
+	private T[] array; // to store the heap
+	private int size;    // the number of elements in the heap
+
+	// comparator to choose
+	private Comparator<T> comparator = Comparator.naturalOrder();
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n where each node has arity children.
+	 * The elements are ordered according to the
+	 * natural order on T.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public DaryHeap(int arity, int n) {
+		if ( arity < 2 )
+			throw new IllegalArgumentException("arity must be at least 2");
+		this.arity = arity;
+		@SuppressWarnings("unchecked") // the erasure of T is Comparable
+		T[] array = (T[]) new Comparable<?>[n];
+		this.array = array;
+		size = 0;
+	}
+
+	/**
+	 * Build a heap of capacity n where each node has arity children.
+	 * The elements are ordered according to comparator.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public DaryHeap(int arity, int n, Comparator<T> comparator) {
+		this(arity, n);
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Build a heap based on array array where each node has arity children.
+	 * The elements are ordered according to comparator.
+	 * The heap is full
+	 */
+	public DaryHeap(int arity, T[] array, Comparator<T> comparator) {
+		if ( arity < 2 )
+			throw new IllegalArgumentException("arity must be at least 2");
+		this.arity = arity;
+		this.array = array;
+		this.size = array.length;
+		this.comparator = comparator;
+		buildHeap();
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Return the index of the first
+	 * child of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int firstChildIndex(int n) {
+		return arity*n + 1;
+	}
+
+	/**
+	 * Return the number of the parent
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/arity;
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(d.log_d(size))
+	 */
+	private void percolateDown(int n) {
+		T e = array[n];
+		int first = firstChildIndex(n);
+		while ( first < size ) {
+			//look for the greatest child
+			int last = Math.min(first + arity, size);
+			int child = first;
+			for ( int i = first + 1; i < last; i++ )
+				if ( comparator.compare(array[i], array[child]) > 0 )
+					child = i;
+			if ( comparator.compare(array[child], e) <= 0 )
+				break;
+			array[n] = array[child]; //move the child up
+			n = child;
+			first = firstChildIndex(n);
+		}
+		array[n] = e; //insert the element in the right place
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log_d(size))
+	 */
+	private void percolateUp(int n) {
+		T e = array[n];
+		while ( n > 0 && comparator.compare(e, array[parentIndex(n)]) > 0 ) {
+			array[n] = array[parentIndex(n)]; //move the parent down
+			n = parentIndex(n);
+		}
+		array[n] = e; //insert the element in the right place
+	}
+
+	/**
+	 * Arrange the elements in array such
+	 * that it has the heap property.
+	 * Complexity: O(size)
+	 */
+	private void buildHeap() {
+		for (int i = parentIndex(size - 1); i >= 0; i-- )
+			percolateDown(i);
+	}
+
+	/**
+	 * Delete the element of node number i
+	 * and restore the heap property.
+	 * Complexity: O(d.log_d(size))
+	 */
+	private void deleteByIndex(int i) {
+		array[i] = array[--size];
+		array[size] = null; //added for garbage collection
+		if ( i < size ) {
+			percolateUp(i);
+			percolateDown(i);
+		}
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the number of children of each node.
+	 * Complexity: THETA(1)
+	 */
+	public int arity() {
+		return arity;
+	}
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[0];
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(d.log_d(size))
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		T extreme = array[0];
+		array[0] = array[--size];
+		array[size] = null; //added for garbage collection
+		if ( size > 0 )
+			percolateDown(0);
+		return extreme;
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Complexity: O(log_d(size))
+	 */
+	public void add(T e) throws FullHeapException {
+		if ( size == array.length )
+			throw new FullHeapException();
+		array[size++] = e;
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Delete one occurrence of the element e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void delete(T e) {
+		for ( int i = 0; i < size; i++ )
+			if ( array[i].compareTo(e) == 0 ) {
+				deleteByIndex(i);
+				return;
+			}
+	}
+
+	/**
+	 * Delete all the elements e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void deleteAll(T e) {
+		int i = 0;
+		while ( i < size )
+			if ( array[i].compareTo(e) == 0 ) {
+				array[i] = array[--size];
+				array[size] = null; //added for garbage collection
+			}
+			else
+				i++;
+		buildHeap();
+	}
+
+	/**
+	 * Return the array of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the heap
+	 */
+	protected T[] getArray() {
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "DaryHeap{" +
+				"arity=" + arity +
+				", array=" + Arrays.toString(array) +
+				", size=" + size +
+				'}';
+	}
+
+	public String byLevels() {
+		StringBuilder bld = new StringBuilder();
+		int nbNodes = 1;
+		int levelSize = 1;
+		for (int i = 0; i < size; i++) {
+			if (i == nbNodes) {
+				bld.append( "\n");
+				levelSize *= arity;
+				nbNodes += levelSize;
+			}
+			bld.append( "("+i+")"+ array[i] + " ");
+		}
+		return bld.toString();
+	}
+
+	public boolean isLeaf(T t) {
+		int i = find(t, 0);
+		if (i == -1) {
+			return false;
+		}
+		return isLeafByIndex(i);
+	}
+
+	private int find(T t, int from) {
+		if (from < size) {
+			if (array[from].equals(t)) {
+				return from; // found
+			}
+			if (comparator.compare(t, array[from]) < 0) { // t may be in the subtrees
+				int last = Math.min(firstChildIndex(from) + arity, size);
+				for (int child = firstChildIndex(from); child < last; child++) {
+					int res = find(t, child);
+					if (res != -1) {
+						return res;
+					}
+				}
+			}
+		}
+		return -1;
+	}
+
+	public boolean isLeafByIndex(int i) {
+		return firstChildIndex(i) >= size;
+	}
+}
@@ -0,0 +1,320 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+
+
+/**
+ * array class for binary heap implementation
+ * specialized for double values.
+ * The values are stored without boxing and the
+ * percolate loops do not allocate.
+ * Values are compared with Double.compare,
+ * so NaN is greater than any other value.
+ */
+public class DoubleBinaryHeap {
+
+	private double[] array; // to store the heap
+	private int size;    // the number of elements in the heap
+
+	// order to choose
+	private final HeapOrder order;
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n.
+	 * The greatest value is the extreme one.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public DoubleBinaryHeap(int n) {
+		this(n, HeapOrder.MAX);
+	}
+
+	/**
+	 * Build a heap of capacity n.
+	 * The extreme value is chosen according to order.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public DoubleBinaryHeap(int n, HeapOrder order) {
+		array = new double[n];
+		size = 0;
+		this.order = order;
+	}
+
+	/**
+	 * Build a heap based on array array.
+	 * The greatest value is the extreme one.
+	 * The heap is full
+	 */
+	public DoubleBinaryHeap(double[] array) {
+		this(array, HeapOrder.MAX);
+	}
+
+	/**
+	 * Build a heap based on array array.
+	 * The extreme value is chosen according to order.
+	 * The heap is full
+	 */
+	public DoubleBinaryHeap(double[] array, HeapOrder order) {
+		this.array = array;
+		this.size = array.length;
+		this.order = order;
+		buildHeap();
+	}
+
+	/**
+	 * Build a heap of capacity array.length on the size first
+	 * values of array, which already have the heap property.
+	 * It restores a snapshot without rebuilding the heap.
+	 * Complexity: THETA(1)
+	 */
+	DoubleBinaryHeap(double[] array, int size, HeapOrder order) {
+		this.array = array;
+		this.size = size;
+		this.order = order;
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Check if a must be above b in the heap.
+	 * Complexity: THETA(1)
+	 */
+	private boolean above(double a, double b) {
+		return order == HeapOrder.MAX ? Double.compare(a, b) > 0 : Double.compare(a, b) < 0;
+	}
+
+	/**
+	 * Return the index of the left
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int leftIndex(int n) {
+		return 2*n + 1;
+	}
+
+	/**
+	 * Return the index of the right
+	 * node of node of index n.
+	 * Complexity: THETA(1)
+	 */
+	private int rightIndex(int n) {
+		return 2*(n + 1);
+	}
+
+	/**
+	 * Return the number of the parentIndex
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/2;
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateDown(int n) {
+		double e = array[n];
+		int child = leftIndex(n);
+		while ( child < size ) {
+			int right = child + 1;
+			if ( right < size && above(array[right], array[child]) )
+				child = right;
+			if ( !above(array[child], e) )
+				break;
+			array[n] = array[child]; //move the child up
+			n = child;
+			child = leftIndex(n);
+		}
+		array[n] = e; //insert the element in the right place
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateUp(int n) {
+		double e = array[n];
+		while ( n > 0 && above(e, array[parentIndex(n)]) ) {
+			array[n] = array[parentIndex(n)]; //move the parent down
+			n = parentIndex(n);
+		}
+		array[n] = e; //insert the element in the right place
+	}
+
+	/**
+	 * Arrange the elements in array such
+	 * that it has the heap property.
+	 * Complexity: O(size)
+	 */
+	private void buildHeap() {
+		for (int i = parentIndex(size - 1); i >= 0; i-- )
+			percolateDown(i);
+	}
+
+	/**
+	 * Remove the element of node number i
+	 * and restore the heap property.
+	 * Complexity: O(log(size))
+	 */
+	private void deleteByIndex(int i) {
+		array[i] = array[--size];
+		if ( i < size ) {
+			percolateUp(i);
+			percolateDown(i);
+		}
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the order of the heap.
+	 * Complexity: THETA(1)
+	 */
+	public HeapOrder order() {
+		return order;
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public double extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[0];
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(log(size))
+	 */
+	public double deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		double extreme = array[0];
+		array[0] = array[--size];
+		if ( size > 0 )
+			percolateDown(0);
+		return extreme;
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Complexity: O(log(size))
+	 */
+	public void add(double e) throws FullHeapException {
+		if ( size == array.length )
+			throw new FullHeapException();
+		array[size++] = e;
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Delete one occurrence of the element e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void delete(double e) {
+		for ( int i = 0; i < size; i++ )
+			if ( Double.compare(array[i], e) == 0 ) {
+				deleteByIndex(i);
+				return;
+			}
+	}
+
+	/**
+	 * Delete all the elements e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void deleteAll(double e) {
+		int i = 0;
+		while ( i < size )
+			if ( Double.compare(array[i], e) == 0 )
+				array[i] = array[--size];
+			else
+				i++;
+		buildHeap();
+	}
+
+	/**
+	 * Return the array of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the heap
+	 */
+	protected double[] getArray() {
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "DoubleBinaryHeap{" +
+				"array=" + Arrays.toString(Arrays.copyOf(array, size)) +
+				", size=" + size +
+				", order=" + order +
+				'}';
+	}
+
+	public String byLevels() {
+		StringBuilder bld = new StringBuilder();
+		int level = 0;
+		int nbNodes = 1;
+		for (int i = 0; i < size; i++) {
+			if (i == nbNodes) {
+				bld.append( "\n");
+				level++;
+				nbNodes += 1 << level;
+			}
+			bld.append( "("+i+")"+ array[i] + " ");
+		}
+		return bld.toString();
+	}
+
+	public boolean isLeaf(double e) {
+		int i = find(e, 0);
+		if (i == -1) {
+			return false;
+		}
+		return isLeafByIndex(i);
+	}
+
+	private int find(double e, int from) {
+		if (from < size) {
+			if (Double.compare(array[from], e) == 0) {
+				return from; // found
+			}
+			if (above(array[from], e)) { // e may be in the subtrees
+				int res = find(e, rightIndex(from)); // search in right subtree
+				if (res != -1) {
+					return res;
+				}
+				return find(e, leftIndex(from)); // search in left subtree
+			}
+		}
+		return -1;
+	}
+
+	public boolean isLeafByIndex(int i) {
+		return leftIndex(i) >= size;
+	}
+}
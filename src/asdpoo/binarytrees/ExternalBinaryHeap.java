@@ -0,0 +1,439 @@
+package asdpoo.binarytrees;
+
+import util.Trace;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+
+/**
+ * External memory priority queue, for queues larger than the memory.
+ * The new elements go to an insertion buffer, a BinaryHeap of bounded
+ * capacity. When the buffer is full, its elements are written in a file
+ * in deleteExtreme order: a sorted run.
+ * The extreme element is the extreme one among the root of the buffer
+ * and the heads of the runs, which are kept in a BinaryHeap of runs.
+ * Each run is read sequentially through a small buffer, so the memory
+ * holds the insertion buffer and one read buffer per run.
+ * When there are MAX_RUNS runs, the half of the runs with the fewest
+ * remaining elements are merged into one run, as in an external merge
+ * sort, so the number of read buffers stays bounded.
+ * The elements are written with a HeapSnapshot.Codec in temporary files
+ * of a directory, which are deleted when they are read or when the
+ * queue is closed.
+ */
+public class ExternalBinaryHeap<T extends Comparable<? super T>> implements Closeable {
+
+	private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	private static final int WRITE_BUFFER_BYTES = 1 << 20;
+	static final int READ_BUFFER_BYTES = 1 << 16;
+	static final int MAX_RUNS = 64;
+
+	/**
+	 * A sorted run in a file, read sequentially.
+	 * Its head is the next element of the run.
+	 */
+	private final class Run implements Comparable<Run> {
+		private final Path file;
+		private final FileChannel channel;
+		private ByteBuffer buffer;
+		private long bufferOffset; // the offset in the file of the start of buffer
+		private long headOffset;   // the offset in the file of head
+		private long remaining;    // the number of elements not read yet
+		private T head;
+
+		/**
+		 * Open the run of length elements in file.
+		 */
+		Run(Path file, long length) throws IOException {
+			this(file, 0, length);
+		}
+
+		/**
+		 * Open the length elements of file from offset:
+		 * the reader does not modify the file, so several
+		 * readers may read the same run.
+		 */
+		Run(Path file, long offset, long length) throws IOException {
+			this.file = file;
+			channel = FileChannel.open(file, StandardOpenOption.READ);
+			try {
+				channel.position(offset);
+				bufferOffset = offset;
+				buffer = ByteBuffer.allocateDirect(READ_BUFFER_BYTES).order(BYTE_ORDER);
+				buffer.limit(0);
+				remaining = length;
+				advance();
+			} catch (IOException | RuntimeException e) {
+				channel.close();
+				throw e;
+			}
+		}
+
+		/**
+		 * Read the next element of the run in head,
+		 * or null at the end of the run.
+		 */
+		void advance() throws IOException {
+			if ( remaining == 0 ) {
+				head = null;
+				return;
+			}
+			while ( true ) {
+				int position = buffer.position();
+				try {
+					T e = codec.read(buffer);
+					head = e;
+					headOffset = bufferOffset + position;
+					remaining--;
+					return;
+				} catch (BufferUnderflowException e) {
+					// the element is cut by the end of the buffer
+					buffer.position(position);
+					if ( buffer.position() == 0 && buffer.limit() == buffer.capacity() )
+						buffer = ByteBuffer.allocateDirect(2 * buffer.capacity()).order(BYTE_ORDER).put(buffer);
+					else {
+						bufferOffset += position;
+						buffer.compact();
+					}
+					if ( channel.read(buffer) < 0 )
+						throw new IOException("the run " + file + " is truncated");
+					buffer.flip();
+				}
+			}
+		}
+
+		/**
+		 * Return a new reader of the run from its head.
+		 */
+		Run copy() throws IOException {
+			return new Run(file, headOffset, remaining + 1);
+		}
+
+		/**
+		 * Close the file of the run.
+		 */
+		void close() throws IOException {
+			channel.close();
+		}
+
+		/**
+		 * Close and delete the file of the run.
+		 */
+		void delete() throws IOException {
+			channel.close();
+			Files.deleteIfExists(file);
+		}
+
+		@Override
+		public int compareTo(Run other) {
+			return comparator.compare(head, other.head);
+		}
+	}
+
+	/**
+	 * Writer of a run, through a direct buffer.
+	 */
+	private final class RunWriter implements Closeable {
+		private final FileChannel channel;
+		private ByteBuffer out = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(BYTE_ORDER);
+
+		RunWriter(Path file) throws IOException {
+			channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		}
+
+		void write(T e) throws IOException {
+			int width = codec.width(e);
+			if ( width > out.remaining() ) {
+				flush();
+				if ( width > out.capacity() )
+					out = ByteBuffer.allocateDirect(width).order(BYTE_ORDER);
+			}
+			codec.write(e, out);
+		}
+
+		private void flush() throws IOException {
+			out.flip();
+			while ( out.hasRemaining() )
+				channel.write(out);
+			out.clear();
+		}
+
+		@Override
+		public void close() throws IOException {
+			try {
+				flush();
+			} finally {
+				channel.close();
+			}
+		}
+	}
+
+	private BinaryHeap<T> buffer;         // the insertion buffer
+	private final List<Run> runs = new ArrayList<>();
+	private BinaryHeap<Run> heads;        // the runs, by their heads
+	private long size = 0;                // the number of elements in the queue
+
+	private final Comparator<T> comparator;
+	private final HeapSnapshot.Codec<T> codec;
+	private final Path directory;
+
+	///////////// Constructors
+
+	/**
+	 * Build an empty queue whose insertion buffer holds bufferCapacity
+	 * elements, and whose runs are written in directory with codec.
+	 * The elements are ordered according to comparator.
+	 */
+	public ExternalBinaryHeap(int bufferCapacity, Comparator<T> comparator, HeapSnapshot.Codec<T> codec, Path directory) {
+		if ( bufferCapacity < 1 )
+			throw new IllegalArgumentException("bufferCapacity must be at least 1");
+		buffer = new BinaryHeap<>(bufferCapacity, comparator);
+		this.comparator = comparator;
+		this.codec = codec;
+		this.directory = directory;
+		heads = heapOf(runs);
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Write the elements of the insertion buffer in a new run.
+	 * The buffer is drained from a copy, and emptied only once the run
+	 * is written: on an IOException, the queue is unchanged.
+	 * Complexity: O(b.log(b)) where b is the capacity of the buffer
+	 */
+	private void spill() throws IOException {
+		int length = buffer.size();
+		BinaryHeap<T> drained = new BinaryHeap<>(Arrays.copyOf(buffer.getArray(), buffer.capacity()), length,
+				comparator, false, buffer.capacity());
+		Path file = Files.createTempFile(directory, "heap-run-", ".bin");
+		Run run;
+		try {
+			try ( RunWriter writer = new RunWriter(file) ) {
+				while ( !drained.isEmpty() )
+					writer.write(drained.deleteExtreme());
+			}
+			run = new Run(file, length);
+		} catch (IOException | RuntimeException e) {
+			deleteQuietly(file, e);
+			throw e;
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+		runs.add(run);
+		buffer = drained; // empty, with the capacity of the buffer
+		try {
+			if ( runs.size() >= MAX_RUNS ) // again if a previous merge failed
+				mergeSmallestRuns();
+		} finally {
+			heads = heapOf(runs);
+		}
+	}
+
+	/**
+	 * Merge the half of the runs with the fewest remaining elements
+	 * into one run.
+	 * The runs are merged through new readers, and replaced only once
+	 * the merged run is written: on an IOException, the runs are unchanged.
+	 * Complexity: O(n.log(MAX_RUNS)) where n is the number of merged elements
+	 */
+	private void mergeSmallestRuns() throws IOException {
+		runs.sort(Comparator.comparingLong(run -> run.remaining));
+		List<Run> merged = new ArrayList<>(runs.subList(0, MAX_RUNS / 2));
+		List<Run> readers = new ArrayList<>(merged.size());
+		Path file = Files.createTempFile(directory, "heap-run-", ".bin");
+		Run run;
+		try {
+			for (Run each : merged)
+				readers.add(each.copy());
+			BinaryHeap<Run> mergedHeads = heapOf(readers);
+			long length = 0;
+			try ( RunWriter writer = new RunWriter(file) ) {
+				while ( !mergedHeads.isEmpty() ) {
+					Run reader = mergedHeads.extreme();
+					writer.write(reader.head);
+					length++;
+					reader.advance();
+					if ( reader.head == null )
+						mergedHeads.deleteExtreme();
+					else
+						mergedHeads.replaceExtreme(reader);
+				}
+			}
+			run = new Run(file, length);
+		} catch (IOException | RuntimeException e) {
+			deleteQuietly(file, e);
+			throw e;
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		} finally {
+			for (Run reader : readers)
+				reader.close();
+		}
+		runs.subList(0, MAX_RUNS / 2).clear();
+		runs.add(run);
+		for (Run each : merged)
+			each.delete();
+		if ( Trace.ENABLED )
+			Trace.record(Trace.Kind.MERGE, merged.size(), run.remaining + 1);
+	}
+
+	/**
+	 * Delete file after the failure failure,
+	 * to which a failure of the deletion is added.
+	 */
+	private static void deleteQuietly(Path file, Exception failure) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			failure.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Return a heap of the runs of list, by their heads.
+	 * Complexity: O(runs)
+	 */
+	private BinaryHeap<Run> heapOf(List<Run> list) {
+		BinaryHeap<Run> heap = new BinaryHeap<Run>(list.size(), Comparator.naturalOrder());
+		try {
+			heap.addAll(list);
+		} catch (FullHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+		return heap;
+	}
+
+	/**
+	 * Check if the extreme element is the head of a run
+	 * rather than the root of the insertion buffer.
+	 * Complexity: THETA(1)
+	 */
+	private boolean extremeInRuns() throws EmptyHeapException {
+		return !heads.isEmpty()
+				&& ( buffer.isEmpty() || comparator.compare(heads.extreme().head, buffer.extreme()) > 0 );
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the queue
+	 * (the number of elements in the queue).
+	 * Complexity: THETA(1)
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Check if the queue is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the number of runs on disk.
+	 * Complexity: THETA(1)
+	 */
+	public int runCount() {
+		return runs.size();
+	}
+
+	/**
+	 * Add a new element in the queue.
+	 * Complexity: O(log(b)) amortized, plus the writing of a run
+	 * every b additions, where b is the capacity of the buffer
+	 */
+	public void add(T e) throws IOException {
+		try {
+			if ( buffer.size() == buffer.capacity() )
+				spill();
+			buffer.add(e);
+		} catch (FullHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+		size++;
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return extremeInRuns() ? heads.extreme().head : buffer.extreme();
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(log(b) + log(runs)), plus a sequential read
+	 */
+	public T deleteExtreme() throws EmptyHeapException, IOException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		T extreme;
+		if ( extremeInRuns() ) {
+			Run run = heads.extreme();
+			extreme = run.head;
+			run.advance();
+			if ( run.head == null ) {
+				heads.deleteExtreme();
+				runs.remove(run);
+				run.delete();
+			} else
+				heads.replaceExtreme(run);
+		} else
+			extreme = buffer.deleteExtreme();
+		size--;
+		return extreme;
+	}
+
+	/**
+	 * Delete the files of the runs.
+	 * The queue is empty after it is closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		IOException failure = null;
+		for (Run run : runs) {
+			try {
+				run.delete();
+			} catch (IOException e) {
+				if ( failure == null )
+					failure = e;
+				else
+					failure.addSuppressed(e);
+			}
+		}
+		runs.clear();
+		heads = heapOf(runs);
+		buffer = new BinaryHeap<>(buffer.capacity(), comparator);
+		size = 0;
+		if ( failure != null )
+			throw failure;
+	}
+
+	@Override
+	public String toString() {
+		return "ExternalBinaryHeap{" +
+				"size=" + size +
+				", buffered=" + buffer.size() +
+				", runs=" + runs.size() +
+				'}';
+	}
+}
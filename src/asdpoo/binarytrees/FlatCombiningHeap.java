@@ -0,0 +1,390 @@
+package asdpoo.binarytrees;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Concurrent priority queue with a strict order, made of a BinaryHeap
+ * protected by flat combining: each thread publishes its request in its
+ * own slot, and the thread which holds the lock (the combiner) applies
+ * the pending requests of all the threads, then the others read their
+ * result in their slot without taking the lock.
+ * The pending adds of a pass are applied together with addAll, which
+ * heapifies the batch, then the pending deletes are served.
+ * All the requests of a pass are concurrent, so applying them in this
+ * order is linearizable: deleteExtreme always returns the extreme element.
+ * The lock is taken once per pass instead of once per request, and the
+ * heap stays in the cache of the combiner.
+ * (Hendler, Incze, Shavit, Tzafrir, "Flat combining and the
+ * synchronization-parallelism tradeoff", SPAA 2010)
+ * A thread keeps its slot until it terminates, then its slot is reused
+ * by the next new thread: once the slots are all taken by live threads,
+ * the other threads apply their requests under the lock.
+ * If a request fails (the comparator throws), it is undone and its
+ * exception is thrown to the thread which made the request, not to the
+ * combiner; a failed batch of adds is undone as a whole, so all its
+ * requests fail. If a request cannot be undone (the comparator throws
+ * again), the queue is unusable: every later request throws an
+ * IllegalStateException.
+ * The heap is growable.
+ */
+public class FlatCombiningHeap<T extends Comparable<? super T>> {
+
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final int NB_SPINS = 64;     // before yielding
+	private static final int NB_PASSES = 4;     // at most, for a combiner
+
+	// the state of a slot
+	private static final int EMPTY = 0;
+	private static final int PENDING = 1;
+	private static final int DONE = 2;
+
+	// the requests
+	private static final int ADD = 0;
+	private static final int DELETE_EXTREME = 1;
+	private static final int EXTREME = 2;
+
+	/**
+	 * The request of a thread and its result.
+	 * op and item are written before state becomes PENDING,
+	 * result, empty and failure before state becomes DONE.
+	 */
+	private static final class Slot<T> {
+		private volatile int state = EMPTY;
+		private int op;
+		private T item;
+		private T result;
+		private boolean empty; // the heap was empty
+		private RuntimeException failure; // thrown by the request
+		private final boolean registered;
+		// the thread which uses the slot, replaced when it terminates
+		private final AtomicReference<Thread> owner = new AtomicReference<>(Thread.currentThread());
+
+		Slot(boolean registered) {
+			this.registered = registered;
+		}
+	}
+
+	private final BinaryHeap<T> heap;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Slot<T>[] slots;
+	private final AtomicInteger nbSlots = new AtomicInteger();
+	private final ThreadLocal<Slot<T>> slot = ThreadLocal.withInitial(this::newSlot);
+	private volatile int size = 0;
+	// the exception which made the heap unusable, null while it is usable
+	private RuntimeException broken = null;
+
+	// used by the combiner only
+	private final List<T> batch = new ArrayList<>();
+	private final List<Slot<T>> batchSlots = new ArrayList<>();
+
+	///////////// Constructors
+
+	/**
+	 * Build an empty queue with 4 slots per available processor.
+	 * The elements are ordered according to comparator.
+	 */
+	public FlatCombiningHeap(Comparator<T> comparator) {
+		this(4 * Runtime.getRuntime().availableProcessors(), comparator);
+	}
+
+	/**
+	 * Build an empty queue with nbSlots slots.
+	 * The elements are ordered according to comparator.
+	 */
+	public FlatCombiningHeap(int nbSlots, Comparator<T> comparator) {
+		if ( nbSlots < 1 )
+			throw new IllegalArgumentException("nbSlots must be at least 1");
+		@SuppressWarnings("unchecked") // every slot is a Slot<T>
+		Slot<T>[] slots = (Slot<T>[]) new Slot<?>[nbSlots];
+		this.slots = slots;
+		heap = new BinaryHeap<>(DEFAULT_CAPACITY, comparator, true);
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Return a slot for the current thread: the slot of a terminated
+	 * thread, else a new registered slot if there is a free one,
+	 * else an unregistered slot.
+	 * Complexity: O(nbSlots)
+	 */
+	private Slot<T> newSlot() {
+		Thread current = Thread.currentThread();
+		for (int j = 0; j < Math.min(nbSlots.get(), slots.length); j++ ) {
+			Slot<T> s = slots[j];
+			if ( s == null )
+				continue; // being registered
+			Thread owner = s.owner.get();
+			if ( !owner.isAlive() && s.owner.compareAndSet(owner, current) )
+				return s;
+		}
+		int i = nbSlots.get();
+		while ( i < slots.length ) {
+			if ( nbSlots.compareAndSet(i, i + 1) ) {
+				Slot<T> s = new Slot<>(true);
+				slots[i] = s;
+				return s;
+			}
+			i = nbSlots.get();
+		}
+		return new Slot<>(false);
+	}
+
+	/**
+	 * Apply the pending request of s.
+	 * Precondition: the lock is held
+	 * Complexity: O(log(size))
+	 */
+	private void apply(Slot<T> s) {
+		T extreme = null;
+		try {
+			checkUsable();
+			switch ( s.op ) {
+				case ADD:
+					heap.add(s.item);
+					break;
+				case DELETE_EXTREME:
+					extreme = heap.extreme();
+					heap.deleteExtreme();
+					s.result = extreme;
+					break;
+				default:
+					s.result = heap.extreme();
+			}
+			s.empty = false;
+		} catch (EmptyHeapException e) {
+			s.empty = true;
+		} catch (FullHeapException impossible) { // the heap is growable
+			s.failure = new IllegalStateException(impossible);
+		} catch (RuntimeException e) {
+			s.failure = e;
+			if ( broken == null )
+				rollBack(s.op == ADD ? Collections.singletonList(s.item) : Collections.emptyList(),
+						extreme != null ? Collections.singletonList(extreme) : Collections.emptyList());
+		}
+		s.item = null;
+		s.state = DONE;
+	}
+
+	/**
+	 * Throw an IllegalStateException if the heap is unusable.
+	 * Precondition: the lock is held
+	 */
+	private void checkUsable() {
+		if ( broken != null )
+			throw new IllegalStateException("the queue is unusable", broken);
+	}
+
+	/**
+	 * Undo a failed operation on the heap which added the elements
+	 * of added and deleted the elements of removed, or make the heap
+	 * unusable if the comparator throws again.
+	 * Precondition: the lock is held
+	 * Complexity: O(size + k) where k is the size of added
+	 */
+	private void rollBack(Collection<? extends T> added, Collection<? extends T> removed) {
+		try {
+			heap.rollBack(added, removed);
+		} catch (RuntimeException e) {
+			broken = e;
+		}
+	}
+
+	/**
+	 * Apply the pending requests of the registered slots:
+	 * the adds as a batch, then the other requests.
+	 * Return the number of applied requests.
+	 * Precondition: the lock is held
+	 * Complexity: O(k + size) and O(k.log(size)) for a small batch,
+	 * where k is the number of requests
+	 */
+	private int combinePass() {
+		int n = Math.min(nbSlots.get(), slots.length);
+		for (int i = 0; i < n; i++ ) {
+			Slot<T> s = slots[i];
+			if ( s != null && s.state == PENDING && s.op == ADD ) {
+				batch.add(s.item);
+				batchSlots.add(s);
+			}
+		}
+		int applied = batch.size();
+		if ( applied > 0 ) {
+			RuntimeException failure = null;
+			try {
+				checkUsable();
+				heap.addAll(batch);
+			} catch (FullHeapException impossible) { // the heap is growable
+				failure = new IllegalStateException(impossible);
+			} catch (RuntimeException e) {
+				failure = e;
+				if ( broken == null )
+					rollBack(batch, Collections.emptyList());
+			}
+			for (Slot<T> s : batchSlots) {
+				s.item = null;
+				s.empty = false;
+				s.failure = failure;
+				s.state = DONE;
+			}
+			batch.clear();
+			batchSlots.clear();
+		}
+		for (int i = 0; i < n; i++ ) {
+			Slot<T> s = slots[i];
+			if ( s != null && s.state == PENDING && s.op != ADD ) {
+				apply(s);
+				applied++;
+			}
+		}
+		size = heap.size();
+		return applied;
+	}
+
+	/**
+	 * Apply the pending requests until there are none
+	 * or NB_PASSES passes are done.
+	 * Precondition: the lock is held
+	 */
+	private void combine() {
+		for (int pass = 0; pass < NB_PASSES; pass++ )
+			if ( combinePass() == 0 )
+				return;
+	}
+
+	/**
+	 * Publish the request op on item in the slot of the current
+	 * thread and wait for its result.
+	 * Throw the exception of the request if it failed.
+	 */
+	private Slot<T> request(int op, T item) {
+		Slot<T> s = slot.get();
+		s.op = op;
+		s.item = item;
+		if ( !s.registered ) {
+			lock.lock();
+			try {
+				apply(s);
+				combine();
+				size = heap.size();
+			} finally {
+				lock.unlock();
+			}
+		} else {
+			s.state = PENDING;
+			int spins = 0;
+			while ( s.state != DONE ) {
+				if ( lock.tryLock() ) {
+					try {
+						combine();
+					} finally {
+						lock.unlock();
+					}
+				} else if ( ++spins < NB_SPINS )
+					Thread.onSpinWait();
+				else
+					Thread.yield();
+			}
+		}
+		RuntimeException failure = s.failure;
+		s.failure = null;
+		s.state = EMPTY;
+		if ( failure != null )
+			throw failure;
+		return s;
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the queue
+	 * (the number of elements in the queue)
+	 * after the last combining pass.
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the queue is empty after the last combining pass.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Add a new element in the queue.
+	 * Complexity: O(log(size)) amortized
+	 */
+	public void add(T e) {
+		request(ADD, e);
+	}
+
+	/**
+	 * Add all the elements of batch in the queue at once,
+	 * with a batch heapify.
+	 * Complexity: O(size + k) and O(k.log(size)) for a small batch,
+	 * where k is the size of batch
+	 */
+	public void addAll(Collection<? extends T> batch) {
+		lock.lock();
+		try {
+			checkUsable();
+			heap.addAll(batch);
+			combine();
+			size = heap.size();
+		} catch (FullHeapException impossible) { // the heap is growable
+			throw new IllegalStateException(impossible);
+		} catch (RuntimeException e) {
+			if ( broken == null )
+				rollBack(batch, Collections.emptyList());
+			size = heap.size();
+			throw e;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1) plus the combining
+	 */
+	public T extreme() throws EmptyHeapException {
+		Slot<T> s = request(EXTREME, null);
+		if ( s.empty )
+			throw new EmptyHeapException();
+		T result = s.result;
+		s.result = null;
+		return result;
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(log(size)) plus the combining
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		Slot<T> s = request(DELETE_EXTREME, null);
+		if ( s.empty )
+			throw new EmptyHeapException();
+		T result = s.result;
+		s.result = null;
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "FlatCombiningHeap{" +
+				"size=" + size +
+				", slots=" + nbSlots.get() + "/" + slots.length +
+				'}';
+	}
+}
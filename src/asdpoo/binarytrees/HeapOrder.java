@@ -0,0 +1,11 @@
+package asdpoo.binarytrees;
+
+/**
+ * Order of a heap of primitive values:
+ * MAX puts the greatest value at the root,
+ * MIN puts the smallest value at the root.
+ */
+public enum HeapOrder {
+	MIN,
+	MAX
+}
@@ -0,0 +1,522 @@
+package asdpoo.binarytrees;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+
+
+/**
+ * Binary snapshots of heaps, to restart with a heap without rebuilding it.
+ * A snapshot stores the array of the heap in heap order, so restoring it
+ * copies the elements and trusts their order: no buildHeap is needed.
+ * The validation of the heap order is optional: THETA(size) comparisons.
+ * The file is written with a FileChannel and read by mapping it in
+ * memory, window by window, so it may be larger than 2 GiB.
+ * Format, in little endian:
+ * magic, version (int), type, order (byte), comparator id (short length
+ * then UTF-8 bytes), capacity, max capacity, size (int), then the size
+ * elements of the array.
+ * The order byte is the HeapOrder of a primitive heap, or 1 for a
+ * growable BinaryHeap. Only BinaryHeap has a comparator id: comparators
+ * cannot be stored, so the caller names its comparator, and the same
+ * name must be given to restore the heap.
+ * The index of an indexed BinaryHeap is not stored, and a BinaryHeap
+ * with lazy deletion is compacted before it is written.
+ * A snapshot too short for the size in its header is rejected
+ * with an EOFException before its elements are read.
+ */
+public class HeapSnapshot {
+
+	private static final int MAGIC = 0x48454150; // "HEAP"
+	private static final int VERSION = 1;
+	private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+	private static final int BUFFER_BYTES = 1 << 20;
+
+	private static final byte OBJECT = 0;
+	private static final byte INT = 1;
+	private static final byte LONG = 2;
+	private static final byte DOUBLE = 3;
+
+	// the size of a mapped window
+	static final int WINDOW_BYTES = 1 << 30;
+
+	/**
+	 * Encoding of the elements of a BinaryHeap.
+	 */
+	public interface Codec<T> {
+		/**
+		 * Return the number of bytes of e.
+		 */
+		int width(T e);
+
+		/**
+		 * Return a lower bound of the number of bytes of an element,
+		 * used to detect a truncated snapshot before reading it.
+		 */
+		default int minWidth() {
+			return 0;
+		}
+
+		/**
+		 * Write e at the position of dst, which has width(e) bytes remaining.
+		 */
+		void write(T e, ByteBuffer dst);
+
+		/**
+		 * Read an element at the position of src.
+		 * Throw BufferUnderflowException if src has not enough bytes.
+		 */
+		T read(ByteBuffer src);
+	}
+
+	public static final Codec<Integer> INTEGER_CODEC = new Codec<>() {
+		public int width(Integer e) {
+			return Integer.BYTES;
+		}
+
+		public int minWidth() {
+			return Integer.BYTES;
+		}
+
+		public void write(Integer e, ByteBuffer dst) {
+			dst.putInt(e);
+		}
+
+		public Integer read(ByteBuffer src) {
+			return src.getInt();
+		}
+	};
+
+	public static final Codec<Long> LONG_CODEC = new Codec<>() {
+		public int width(Long e) {
+			return Long.BYTES;
+		}
+
+		public int minWidth() {
+			return Long.BYTES;
+		}
+
+		public void write(Long e, ByteBuffer dst) {
+			dst.putLong(e);
+		}
+
+		public Long read(ByteBuffer src) {
+			return src.getLong();
+		}
+	};
+
+	/**
+	 * Strings as their length followed by their UTF-8 bytes.
+	 */
+	public static final Codec<String> STRING_CODEC = new Codec<>() {
+		public int width(String e) {
+			return Integer.BYTES + e.getBytes(StandardCharsets.UTF_8).length;
+		}
+
+		public int minWidth() {
+			return Integer.BYTES;
+		}
+
+		public void write(String e, ByteBuffer dst) {
+			byte[] bytes = e.getBytes(StandardCharsets.UTF_8);
+			dst.putInt(bytes.length);
+			dst.put(bytes);
+		}
+
+		public String read(ByteBuffer src) {
+			int length = src.getInt();
+			if ( length < 0 || length > src.remaining() ) {
+				src.position(src.position() - Integer.BYTES);
+				throw new BufferUnderflowException();
+			}
+			byte[] bytes = new byte[length];
+			src.get(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+
+	private HeapSnapshot() {
+	}
+
+	///////////// Writing
+
+	/**
+	 * Write heap in file, whose content is overwritten.
+	 * comparatorId names the comparator of the heap.
+	 * Complexity: THETA(size)
+	 */
+	public static <T extends Comparable<? super T>> void write(BinaryHeap<T> heap, String comparatorId, Codec<T> codec, Path file) throws IOException {
+		heap.compact(); // the tombstones are not stored
+		T[] array = heap.getArray();
+		try ( FileChannel channel = openForWrite(file) ) {
+			ByteBuffer buffer = header(OBJECT, (byte) (heap.isGrowable() ? 1 : 0), comparatorId,
+					heap.capacity(), heap.maxCapacity(), heap.size());
+			for (int i = 0; i < heap.size(); i++ ) {
+				int width = codec.width(array[i]);
+				if ( width > buffer.remaining() ) {
+					flush(channel, buffer);
+					if ( width > buffer.capacity() )
+						buffer = ByteBuffer.allocateDirect(width).order(BYTE_ORDER);
+				}
+				codec.write(array[i], buffer);
+			}
+			flush(channel, buffer);
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Write heap in file, whose content is overwritten.
+	 * Complexity: THETA(size)
+	 */
+	public static void write(IntBinaryHeap heap, Path file) throws IOException {
+		int[] array = heap.getArray();
+		try ( FileChannel channel = openForWrite(file) ) {
+			ByteBuffer buffer = header(INT, (byte) heap.order().ordinal(), "", array.length, array.length, heap.size());
+			for (int i = 0; i < heap.size(); ) {
+				if ( buffer.remaining() < Integer.BYTES )
+					flush(channel, buffer);
+				int n = Math.min(heap.size() - i, buffer.remaining() / Integer.BYTES);
+				buffer.asIntBuffer().put(array, i, n);
+				buffer.position(buffer.position() + n * Integer.BYTES);
+				i += n;
+			}
+			flush(channel, buffer);
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Write heap in file, whose content is overwritten.
+	 * Complexity: THETA(size)
+	 */
+	public static void write(LongBinaryHeap heap, Path file) throws IOException {
+		long[] array = heap.getArray();
+		try ( FileChannel channel = openForWrite(file) ) {
+			ByteBuffer buffer = header(LONG, (byte) heap.order().ordinal(), "", array.length, array.length, heap.size());
+			for (int i = 0; i < heap.size(); ) {
+				if ( buffer.remaining() < Long.BYTES )
+					flush(channel, buffer);
+				int n = Math.min(heap.size() - i, buffer.remaining() / Long.BYTES);
+				buffer.asLongBuffer().put(array, i, n);
+				buffer.position(buffer.position() + n * Long.BYTES);
+				i += n;
+			}
+			flush(channel, buffer);
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Write heap in file, whose content is overwritten.
+	 * Complexity: THETA(size)
+	 */
+	public static void write(DoubleBinaryHeap heap, Path file) throws IOException {
+		double[] array = heap.getArray();
+		try ( FileChannel channel = openForWrite(file) ) {
+			ByteBuffer buffer = header(DOUBLE, (byte) heap.order().ordinal(), "", array.length, array.length, heap.size());
+			for (int i = 0; i < heap.size(); ) {
+				if ( buffer.remaining() < Double.BYTES )
+					flush(channel, buffer);
+				int n = Math.min(heap.size() - i, buffer.remaining() / Double.BYTES);
+				buffer.asDoubleBuffer().put(array, i, n);
+				buffer.position(buffer.position() + n * Double.BYTES);
+				i += n;
+			}
+			flush(channel, buffer);
+			channel.force(false);
+		}
+	}
+
+	private static FileChannel openForWrite(Path file) throws IOException {
+		return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+	}
+
+	/**
+	 * Return a buffer holding the header of a snapshot.
+	 */
+	private static ByteBuffer header(byte type, byte order, String comparatorId, int capacity, int maxCapacity, int size) {
+		byte[] id = comparatorId.getBytes(StandardCharsets.UTF_8);
+		if ( id.length > Short.MAX_VALUE )
+			throw new IllegalArgumentException("comparatorId is too long");
+		ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(BYTE_ORDER);
+		buffer.putInt(MAGIC).putInt(VERSION).put(type).put(order);
+		buffer.putShort((short) id.length).put(id);
+		buffer.putInt(capacity).putInt(maxCapacity).putInt(size);
+		return buffer;
+	}
+
+	private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while ( buffer.hasRemaining() )
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	///////////// Reading
+
+	/**
+	 * Restore a BinaryHeap from file.
+	 * comparatorId must be the name given when writing it, and
+	 * comparator the comparator it names.
+	 * If validate is true, check that the elements have the heap order.
+	 * Complexity: THETA(size)
+	 */
+	public static <T extends Comparable<? super T>> BinaryHeap<T> readBinaryHeap(Path file, String comparatorId, Comparator<T> comparator,
+			Codec<T> codec, boolean validate) throws IOException {
+		return readBinaryHeap(file, comparatorId, comparator, codec, validate, WINDOW_BYTES);
+	}
+
+	/**
+	 * Restore a BinaryHeap from file, mapped by windows of at most windowBytes bytes
+	 */
+	static <T extends Comparable<? super T>> BinaryHeap<T> readBinaryHeap(Path file, String comparatorId, Comparator<T> comparator,
+			Codec<T> codec, boolean validate, int windowBytes) throws IOException {
+		try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+			MappedReader reader = new MappedReader(channel, windowBytes);
+			Header header = reader.header(OBJECT);
+			if ( !header.comparatorId.equals(comparatorId) )
+				throw new IOException("the heap was written with comparator " + header.comparatorId);
+			reader.checkRemaining(header.size, codec.minWidth());
+			@SuppressWarnings("unchecked") // the erasure of T is Comparable
+			T[] array = (T[]) new Comparable<?>[header.capacity];
+			for (int i = 0; i < header.size; i++ )
+				array[i] = reader.read(codec);
+			if ( validate )
+				for (int i = 1; i < header.size; i++ )
+					if ( comparator.compare(array[i], array[(i - 1)/2]) > 0 )
+						throw notAHeap(i);
+			return new BinaryHeap<>(array, header.size, comparator, header.order == 1, header.maxCapacity);
+		}
+	}
+
+	/**
+	 * Restore an IntBinaryHeap from file.
+	 * If validate is true, check that the values have the heap order.
+	 * Complexity: THETA(size)
+	 */
+	public static IntBinaryHeap readIntBinaryHeap(Path file, boolean validate) throws IOException {
+		return readIntBinaryHeap(file, validate, WINDOW_BYTES);
+	}
+
+	/**
+	 * Restore an IntBinaryHeap from file, mapped by windows of at most windowBytes bytes
+	 */
+	static IntBinaryHeap readIntBinaryHeap(Path file, boolean validate, int windowBytes) throws IOException {
+		try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+			MappedReader reader = new MappedReader(channel, windowBytes);
+			Header header = reader.header(INT);
+			reader.checkRemaining(header.size, Integer.BYTES);
+			HeapOrder order = header.heapOrder();
+			int[] array = new int[header.capacity];
+			for (int i = 0; i < header.size; ) {
+				ByteBuffer window = reader.require(Integer.BYTES);
+				int n = Math.min(header.size - i, window.remaining() / Integer.BYTES);
+				window.asIntBuffer().get(array, i, n);
+				window.position(window.position() + n * Integer.BYTES);
+				i += n;
+			}
+			if ( validate )
+				for (int i = 1; i < header.size; i++ ) {
+					int parent = array[(i - 1)/2];
+					if ( order == HeapOrder.MAX ? array[i] > parent : array[i] < parent )
+						throw notAHeap(i);
+				}
+			return new IntBinaryHeap(array, header.size, order);
+		}
+	}
+
+	/**
+	 * Restore a LongBinaryHeap from file.
+	 * If validate is true, check that the values have the heap order.
+	 * Complexity: THETA(size)
+	 */
+	public static LongBinaryHeap readLongBinaryHeap(Path file, boolean validate) throws IOException {
+		return readLongBinaryHeap(file, validate, WINDOW_BYTES);
+	}
+
+	/**
+	 * Restore a LongBinaryHeap from file, mapped by windows of at most windowBytes bytes
+	 */
+	static LongBinaryHeap readLongBinaryHeap(Path file, boolean validate, int windowBytes) throws IOException {
+		try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+			MappedReader reader = new MappedReader(channel, windowBytes);
+			Header header = reader.header(LONG);
+			reader.checkRemaining(header.size, Long.BYTES);
+			HeapOrder order = header.heapOrder();
+			long[] array = new long[header.capacity];
+			for (int i = 0; i < header.size; ) {
+				ByteBuffer window = reader.require(Long.BYTES);
+				int n = Math.min(header.size - i, window.remaining() / Long.BYTES);
+				window.asLongBuffer().get(array, i, n);
+				window.position(window.position() + n * Long.BYTES);
+				i += n;
+			}
+			if ( validate )
+				for (int i = 1; i < header.size; i++ ) {
+					long parent = array[(i - 1)/2];
+					if ( order == HeapOrder.MAX ? array[i] > parent : array[i] < parent )
+						throw notAHeap(i);
+				}
+			return new LongBinaryHeap(array, header.size, order);
+		}
+	}
+
+	/**
+	 * Restore a DoubleBinaryHeap from file.
+	 * If validate is true, check that the values have the heap order.
+	 * Complexity: THETA(size)
+	 */
+	public static DoubleBinaryHeap readDoubleBinaryHeap(Path file, boolean validate) throws IOException {
+		return readDoubleBinaryHeap(file, validate, WINDOW_BYTES);
+	}
+
+	/**
+	 * Restore a DoubleBinaryHeap from file, mapped by windows of at most windowBytes bytes
+	 */
+	static DoubleBinaryHeap readDoubleBinaryHeap(Path file, boolean validate, int windowBytes) throws IOException {
+		try ( FileChannel channel = FileChannel.open(file, StandardOpenOption.READ) ) {
+			MappedReader reader = new MappedReader(channel, windowBytes);
+			Header header = reader.header(DOUBLE);
+			reader.checkRemaining(header.size, Double.BYTES);
+			HeapOrder order = header.heapOrder();
+			double[] array = new double[header.capacity];
+			for (int i = 0; i < header.size; ) {
+				ByteBuffer window = reader.require(Double.BYTES);
+				int n = Math.min(header.size - i, window.remaining() / Double.BYTES);
+				window.asDoubleBuffer().get(array, i, n);
+				window.position(window.position() + n * Double.BYTES);
+				i += n;
+			}
+			if ( validate )
+				for (int i = 1; i < header.size; i++ ) {
+					int cmp = Double.compare(array[i], array[(i - 1)/2]);
+					if ( order == HeapOrder.MAX ? cmp > 0 : cmp < 0 )
+						throw notAHeap(i);
+				}
+			return new DoubleBinaryHeap(array, header.size, order);
+		}
+	}
+
+	private static IOException notAHeap(int i) {
+		return new IOException("the snapshot is not a heap at node " + i);
+	}
+
+	/**
+	 * The header of a snapshot.
+	 */
+	private static final class Header {
+		private byte order;
+		private String comparatorId;
+		private int capacity;
+		private int maxCapacity;
+		private int size;
+
+		HeapOrder heapOrder() throws IOException {
+			if ( order < 0 || order >= HeapOrder.values().length )
+				throw new IOException("unknown heap order " + order);
+			return HeapOrder.values()[order];
+		}
+	}
+
+	/**
+	 * Sequential reader of a file mapped in memory
+	 * by windows of at most windowBytes bytes.
+	 */
+	private static final class MappedReader {
+		private final FileChannel channel;
+		private final long fileSize;
+		private final int windowBytes;
+		private long windowStart; // the position of the window in the file
+		private ByteBuffer window;
+
+		MappedReader(FileChannel channel, int windowBytes) throws IOException {
+			this.channel = channel;
+			this.fileSize = channel.size();
+			this.windowBytes = windowBytes;
+			map(0);
+		}
+
+		private void map(long position) throws IOException {
+			windowStart = position;
+			window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(fileSize - position, windowBytes))
+					.order(BYTE_ORDER);
+		}
+
+		/**
+		 * Return the window, with at least bytes bytes remaining.
+		 */
+		ByteBuffer require(int bytes) throws IOException {
+			if ( window.remaining() < bytes ) {
+				long position = windowStart + window.position();
+				if ( fileSize - position < bytes )
+					throw new EOFException("the snapshot is truncated");
+				map(position);
+			}
+			return window;
+		}
+
+		/**
+		 * Check that the rest of the file can hold count elements
+		 * of at least elementBytes bytes each.
+		 */
+		void checkRemaining(int count, int elementBytes) throws IOException {
+			long needed = (long) count * elementBytes;
+			long remaining = fileSize - (windowStart + window.position());
+			if ( needed > remaining )
+				throw new EOFException("the snapshot is truncated: " + count + " elements need at least "
+						+ needed + " bytes, " + remaining + " remain");
+		}
+
+		/**
+		 * Read an element with codec.
+		 */
+		<T> T read(Codec<T> codec) throws IOException {
+			while ( true ) {
+				int start = window.position();
+				try {
+					return codec.read(window);
+				} catch (BufferUnderflowException e) {
+					// the element is cut by the end of the window
+					if ( windowStart + window.limit() == fileSize )
+						throw new EOFException("the snapshot is truncated");
+					if ( start == 0 )
+						throw new IOException("an element is larger than a window");
+					map(windowStart + start);
+				}
+			}
+		}
+
+		Header header(byte type) throws IOException {
+			ByteBuffer buffer = require(2*Integer.BYTES + 2 + Short.BYTES);
+			if ( buffer.getInt() != MAGIC )
+				throw new IOException("not a heap snapshot");
+			int version = buffer.getInt();
+			if ( version != VERSION )
+				throw new IOException("unsupported snapshot version " + version);
+			byte storedType = buffer.get();
+			if ( storedType != type )
+				throw new IOException("the snapshot holds another type of heap");
+			Header header = new Header();
+			header.order = buffer.get();
+			byte[] id = new byte[buffer.getShort()];
+			require(id.length).get(id);
+			header.comparatorId = new String(id, StandardCharsets.UTF_8);
+			buffer = require(3*Integer.BYTES);
+			header.capacity = buffer.getInt();
+			header.maxCapacity = buffer.getInt();
+			header.size = buffer.getInt();
+			if ( header.size < 0 || header.size > header.capacity || header.capacity > header.maxCapacity )
+				throw new IOException("corrupted snapshot header");
+			return header;
+		}
+	}
+}
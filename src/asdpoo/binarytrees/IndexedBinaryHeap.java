@@ -0,0 +1,351 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * array class for binary heap implementation
+ * with an index from each element to its node number.
+ * The index is kept up to date by the percolate methods, so that
+ * contains and isLeaf are THETA(1) and delete, changePriority,
+ * increaseKey and decreaseKey are O(log(size)).
+ * The elements of the heap must be distinct (according to equals)
+ * and their hashCode must not change while they are in the heap.
+ */
+public class IndexedBinaryHeap<T extends Comparable<? super T>> {
+
+	private T[] array; // to store the heap
+	private int size;    // the number of elements in the heap
+
+	// node number of each element of the heap
+	private final Map<T, Integer> positions;
+
+	// comparator to choose
+	private Comparator<T> comparator = Comparator.naturalOrder();
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n.
+	 * The elements are ordered according to the
+	 * natural order on T.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public IndexedBinaryHeap(int n) {
+		@SuppressWarnings("unchecked") // the erasure of T is Comparable
+		T[] array = (T[]) new Comparable<?>[n];
+		this.array = array;
+		positions = new HashMap<>();
+		size = 0;
+	}
+
+	/**
+	 * Build a heap of capacity n.
+	 * The elements are ordered according to comparator.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public IndexedBinaryHeap(int n, Comparator<T> comparator) {
+		this(n);
+		this.comparator = comparator;
+	}
+
+	/**
+	 * Build a heap based on array array.
+	 * The elements are ordered according to comparator.
+	 * The heap is full
+	 * Throw IllegalArgumentException if array contains duplicates.
+	 * Complexity: O(size)
+	 */
+	public IndexedBinaryHeap(T[] array, Comparator<T> comparator) {
+		this.array = array;
+		this.size = array.length;
+		this.comparator = comparator;
+		this.positions = new HashMap<>(Math.max(16, (int) (size / 0.75f) + 1));
+		for (int i = 0; i < size; i++)
+			if ( positions.put(array[i], i) != null )
+				throw new IllegalArgumentException("Duplicate element " + array[i]);
+		buildHeap();
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Put e in node number i and record its position.
+	 * Complexity: THETA(1)
+	 */
+	private void set(int i, T e) {
+		array[i] = e;
+		positions.put(e, i);
+	}
+
+	/**
+	 * Return the index of the left
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int leftIndex(int n) {
+		return 2*n + 1;
+	}
+
+	/**
+	 * Return the number of the parentIndex
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/2;
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateDown(int n) {
+		T e = array[n];
+		int child = leftIndex(n);
+		while ( child < size ) {
+			int right = child + 1;
+			if ( right < size && comparator.compare(array[right], array[child]) > 0 )
+				child = right;
+			if ( comparator.compare(array[child], e) <= 0 )
+				break;
+			set(n, array[child]); //move the child up
+			n = child;
+			child = leftIndex(n);
+		}
+		set(n, e); //insert the element in the right place
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * and return its new node number.
+	 * Complexity: O(log(size))
+	 */
+	private int percolateUp(int n) {
+		T e = array[n];
+		while ( n > 0 && comparator.compare(e, array[parentIndex(n)]) > 0 ) {
+			set(n, array[parentIndex(n)]); //move the parent down
+			n = parentIndex(n);
+		}
+		set(n, e); //insert the element in the right place
+		return n;
+	}
+
+	/**
+	 * Restore the heap property around node number n
+	 * after its element changed.
+	 * Complexity: O(log(size))
+	 */
+	private void percolate(int n) {
+		if ( percolateUp(n) == n )
+			percolateDown(n);
+	}
+
+	/**
+	 * Arrange the elements in array such
+	 * that it has the heap property.
+	 * Complexity: O(size)
+	 */
+	private void buildHeap() {
+		for (int i = parentIndex(size - 1); i >= 0; i-- )
+			percolateDown(i);
+	}
+
+	/**
+	 * Return the node number of e.
+	 * Throw IllegalArgumentException if e is not in the heap.
+	 * Complexity: THETA(1)
+	 */
+	private int indexOf(T e) {
+		Integer i = positions.get(e);
+		if ( i == null )
+			throw new IllegalArgumentException(e + " is not in the heap");
+		return i;
+	}
+
+	/**
+	 * Delete the element of node number i.
+	 * Complexity: O(log(size))
+	 */
+	private void deleteByIndex(int i) {
+		positions.remove(array[i]);
+		T last = array[--size];
+		array[size] = null; //added for garbage collection
+		if ( i < size ) {
+			set(i, last);
+			percolate(i);
+		}
+	}
+
+	/**
+	 * Replace the element of node number i by e
+	 * and restore the heap property.
+	 * Complexity: O(log(size))
+	 */
+	private void replace(int i, T old, T e) {
+		if ( !old.equals(e) && positions.containsKey(e) )
+			throw new IllegalArgumentException(e + " is already in the heap");
+		positions.remove(old);
+		set(i, e);
+		percolate(i);
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Check if e is in the heap.
+	 * Complexity: THETA(1)
+	 */
+	public boolean contains(T e) {
+		return positions.containsKey(e);
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[0];
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(log(size))
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		T extreme = array[0];
+		deleteByIndex(0);
+		return extreme;
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Throw IllegalArgumentException if e is already in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void add(T e) throws FullHeapException {
+		if ( size == array.length )
+			throw new FullHeapException();
+		if ( positions.containsKey(e) )
+			throw new IllegalArgumentException(e + " is already in the heap");
+		set(size++, e);
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Delete the element e from the heap.
+	 * Nothing is done if e is not in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void delete(T e) {
+		Integer i = positions.get(e);
+		if ( i != null )
+			deleteByIndex(i);
+	}
+
+	/**
+	 * Restore the heap property after the order of e
+	 * has been changed in place (e.g. a mutable priority field).
+	 * Throw IllegalArgumentException if e is not in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void changePriority(T e) {
+		percolate(indexOf(e));
+	}
+
+	/**
+	 * Replace the element old by e, whatever their order.
+	 * Throw IllegalArgumentException if old is not in the heap
+	 * or if e is already in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void changePriority(T old, T e) {
+		replace(indexOf(old), old, e);
+	}
+
+	/**
+	 * Replace the element old by e which is not smaller
+	 * according to the natural order on T.
+	 * With a reversed comparator (min heap) e moves towards the leaves,
+	 * with the natural order (max heap) it moves towards the root.
+	 * Throw IllegalArgumentException if e is smaller than old,
+	 * if old is not in the heap or if e is already in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void increaseKey(T old, T e) {
+		if ( e.compareTo(old) < 0 )
+			throw new IllegalArgumentException(e + " is smaller than " + old);
+		replace(indexOf(old), old, e);
+	}
+
+	/**
+	 * Replace the element old by e which is not greater
+	 * according to the natural order on T.
+	 * With a reversed comparator (min heap) e moves towards the root,
+	 * with the natural order (max heap) it moves towards the leaves.
+	 * Throw IllegalArgumentException if e is greater than old,
+	 * if old is not in the heap or if e is already in the heap.
+	 * Complexity: O(log(size))
+	 */
+	public void decreaseKey(T old, T e) {
+		if ( e.compareTo(old) > 0 )
+			throw new IllegalArgumentException(e + " is greater than " + old);
+		replace(indexOf(old), old, e);
+	}
+
+	/**
+	 * Return the array of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the heap
+	 */
+	protected T[] getArray() {
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "IndexedBinaryHeap{" +
+				"array=" + Arrays.toString(array) +
+				", size=" + size +
+				'}';
+	}
+
+	/**
+	 * Check if e is in a leaf of the heap.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isLeaf(T e) {
+		Integer i = positions.get(e);
+		return i != null && isLeafByIndex(i);
+	}
+
+	public boolean isLeafByIndex(int i) {
+		return leftIndex(i) >= size;
+	}
+}
@@ -0,0 +1,246 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+import java.util.function.ToLongFunction;
+
+
+/**
+ * array class for binary heap implementation
+ * on a long key extracted from each element.
+ * The key of an element is extracted once, when it is added, and stored
+ * in a long array next to the array of the elements: the percolate loops
+ * only compare primitive keys, and an element only moves with its key.
+ * int keys are extracted by the same ToLongFunction.
+ * The key of an element must not change while it is in the heap.
+ */
+public class KeyedBinaryHeap<T> {
+
+	private long[] keys;     // the keys of the heap
+	private T[] values;      // the element of each key
+	private int size;        // the number of elements in the heap
+
+	private final ToLongFunction<? super T> keyExtractor;
+	// order to choose
+	private final HeapOrder order;
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n.
+	 * The element of the greatest key is the extreme one.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public KeyedBinaryHeap(int n, ToLongFunction<? super T> keyExtractor) {
+		this(n, keyExtractor, HeapOrder.MAX);
+	}
+
+	/**
+	 * Build a heap of capacity n.
+	 * The extreme key is chosen according to order.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public KeyedBinaryHeap(int n, ToLongFunction<? super T> keyExtractor, HeapOrder order) {
+		keys = new long[n];
+		@SuppressWarnings("unchecked") // never leaves the heap
+		T[] values = (T[]) new Object[n];
+		this.values = values;
+		size = 0;
+		this.keyExtractor = keyExtractor;
+		this.order = order;
+	}
+
+	/**
+	 * Build a heap based on the elements of array.
+	 * The extreme key is chosen according to order.
+	 * The heap is full
+	 * Complexity: THETA(n)
+	 */
+	public KeyedBinaryHeap(T[] array, ToLongFunction<? super T> keyExtractor, HeapOrder order) {
+		this(array.length, keyExtractor, order);
+		for (int i = 0; i < array.length; i++) {
+			keys[i] = keyExtractor.applyAsLong(array[i]);
+			values[i] = array[i];
+		}
+		size = array.length;
+		for (int i = parentIndex(size - 1); i >= 0; i-- )
+			percolateDown(i);
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Check if a must be above b in the heap.
+	 * Complexity: THETA(1)
+	 */
+	private boolean above(long a, long b) {
+		return order == HeapOrder.MAX ? a > b : a < b;
+	}
+
+	/**
+	 * Return the number of the parentIndex
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/2;
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateDown(int n) {
+		long key = keys[n];
+		T value = values[n];
+		int child = 2*n + 1;
+		while ( child < size ) {
+			int right = child + 1;
+			if ( right < size && above(keys[right], keys[child]) )
+				child = right;
+			if ( !above(keys[child], key) )
+				break;
+			keys[n] = keys[child]; //move the child up
+			values[n] = values[child];
+			n = child;
+			child = 2*n + 1;
+		}
+		keys[n] = key; //insert the element in the right place
+		values[n] = value;
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateUp(int n) {
+		long key = keys[n];
+		T value = values[n];
+		while ( n > 0 && above(key, keys[parentIndex(n)]) ) {
+			keys[n] = keys[parentIndex(n)]; //move the parent down
+			values[n] = values[parentIndex(n)];
+			n = parentIndex(n);
+		}
+		keys[n] = key; //insert the element in the right place
+		values[n] = value;
+	}
+
+	/**
+	 * Delete the element of node number n
+	 * and return it.
+	 * Complexity: O(log(size))
+	 */
+	private T deleteByIndex(int n) {
+		T e = values[n];
+		size--;
+		keys[n] = keys[size];
+		values[n] = values[size];
+		values[size] = null; //added for garbage collection
+		if ( n < size ) {
+			percolateUp(n);
+			percolateDown(n);
+		}
+		return e;
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the order of the heap.
+	 * Complexity: THETA(1)
+	 */
+	public HeapOrder order() {
+		return order;
+	}
+
+	/**
+	 * Return the element of the extreme key.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return values[0];
+	}
+
+	/**
+	 * Return the extreme key.
+	 * Complexity: THETA(1)
+	 */
+	public long extremeKey() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return keys[0];
+	}
+
+	/**
+	 * Return and delete the element of the extreme key.
+	 * Complexity: O(log(size))
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return deleteByIndex(0);
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Complexity: O(log(size))
+	 */
+	public void add(T e) throws FullHeapException {
+		if ( size == keys.length )
+			throw new FullHeapException();
+		keys[size] = keyExtractor.applyAsLong(e);
+		values[size++] = e;
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Delete one occurrence of the element e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void delete(T e) {
+		long key = keyExtractor.applyAsLong(e);
+		for ( int i = 0; i < size; i++ )
+			if ( keys[i] == key && values[i].equals(e) ) {
+				deleteByIndex(i);
+				return;
+			}
+	}
+
+	/**
+	 * Return the array of the keys of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the keys
+	 */
+	protected long[] getKeys() {
+		return keys;
+	}
+
+	@Override
+	public String toString() {
+		return "KeyedBinaryHeap{" +
+				"keys=" + Arrays.toString(Arrays.copyOf(keys, size)) +
+				", size=" + size +
+				", order=" + order +
+				'}';
+	}
+}
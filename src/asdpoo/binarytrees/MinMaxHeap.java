@@ -0,0 +1,267 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+
+/**
+ * array class for min-max heap implementation (double-ended priority queue).
+ * The levels of the tree are alternately min levels (the root level,
+ * then every other level) and max levels:
+ * a node of a min level is smaller than all of its descendants,
+ * a node of a max level is greater than all of its descendants.
+ * So the smallest element is the root and the greatest one
+ * is one of the two children of the root.
+ * (Atkinson, Sack, Santoro, Strothotte, "Min-max heaps and generalized
+ * priority queues", CACM 1986)
+ */
+public class MinMaxHeap<T extends Comparable<? super T>> {
+
+	private T[] array; // to store the heap
+	private int size;    // the number of elements in the heap
+
+	// comparator to choose
+	private Comparator<T> comparator = Comparator.naturalOrder();
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n.
+	 * The elements are ordered according to the
+	 * natural order on T.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public MinMaxHeap(int n) {
+		@SuppressWarnings("unchecked") // the erasure of T is Comparable
+		T[] array = (T[]) new Comparable<?>[n];
+		this.array = array;
+		size = 0;
+	}
+
+	/**
+	 * Build a heap of capacity n.
+	 * The elements are ordered according to comparator.
+	 * The heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public MinMaxHeap(int n, Comparator<T> comparator) {
+		this(n);
+		this.comparator = comparator;
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Swap values in the array
+	 * at indexes i and j.
+	 * Complexity: THETA(1)
+	 */
+	private void swap(int i, int j) {
+		T tmp = array[i];
+		array[i] = array[j];
+		array[j] = tmp;
+	}
+
+	/**
+	 * Return the number of the parent
+	 * node of node number n.
+	 * Complexity: THETA(1)
+	 */
+	private int parentIndex(int n) {
+		return (n - 1)/2;
+	}
+
+	/**
+	 * Check if node number n is on a min level.
+	 * Complexity: THETA(1)
+	 */
+	private boolean isOnMinLevel(int n) {
+		int level = 31 - Integer.numberOfLeadingZeros(n + 1);
+		return (level & 1) == 0;
+	}
+
+	/**
+	 * Check if the element of node number i must be above
+	 * the element of node number j on a min level (min is true)
+	 * or on a max level (min is false).
+	 * Complexity: THETA(1)
+	 */
+	private boolean above(int i, int j, boolean min) {
+		int cmp = comparator.compare(array[i], array[j]);
+		return min ? cmp < 0 : cmp > 0;
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateUp(int n) {
+		if ( n == 0 )
+			return;
+		int parent = parentIndex(n);
+		boolean min = isOnMinLevel(n);
+		if ( above(parent, n, min) ) {
+			// the element belongs to the levels of its parent
+			swap(n, parent);
+			percolateUpGrandparents(parent, !min);
+		} else
+			percolateUpGrandparents(n, min);
+	}
+
+	/**
+	 * Percolate up the element of node number n along
+	 * its grandparents, which are on the same kind of level.
+	 * Complexity: O(log(size))
+	 */
+	private void percolateUpGrandparents(int n, boolean min) {
+		while ( n > 2 ) {
+			int grandparent = parentIndex(parentIndex(n));
+			if ( !above(n, grandparent, min) )
+				return;
+			swap(n, grandparent);
+			n = grandparent;
+		}
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateDown(int n) {
+		boolean min = isOnMinLevel(n);
+		while ( 2*n + 1 < size ) {
+			// the best node among the children and grandchildren
+			int best = 2*n + 1;
+			if ( 2*n + 2 < size && above(2*n + 2, best, min) )
+				best = 2*n + 2;
+			int lastGrandchild = Math.min(4*n + 6, size - 1);
+			for (int grandchild = 4*n + 3; grandchild <= lastGrandchild; grandchild++)
+				if ( above(grandchild, best, min) )
+					best = grandchild;
+			if ( !above(best, n, min) )
+				return;
+			swap(best, n);
+			if ( best <= 2*n + 2 ) // a child: it has no descendant
+				return;
+			// a grandchild: restore the order with its parent, on the other kind of level
+			if ( above(parentIndex(best), best, min) )
+				swap(best, parentIndex(best));
+			n = best;
+		}
+	}
+
+	/**
+	 * Return the node number of the greatest element.
+	 * Precondition: size > 0
+	 * Complexity: THETA(1)
+	 */
+	private int maxIndex() {
+		if ( size == 1 )
+			return 0;
+		if ( size == 2 || comparator.compare(array[1], array[2]) >= 0 )
+			return 1;
+		return 2;
+	}
+
+	/**
+	 * Delete the element of node number n
+	 * and return it.
+	 * Complexity: O(log(size))
+	 */
+	private T deleteByIndex(int n) {
+		T e = array[n];
+		array[n] = array[--size];
+		array[size] = null; //added for garbage collection
+		if ( n < size )
+			percolateDown(n);
+		return e;
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the smallest element.
+	 * Complexity: THETA(1)
+	 */
+	public T min() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[0];
+	}
+
+	/**
+	 * Return the greatest element.
+	 * Complexity: THETA(1)
+	 */
+	public T max() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return array[maxIndex()];
+	}
+
+	/**
+	 * Return and delete the smallest element.
+	 * Complexity: O(log(size))
+	 */
+	public T deleteMin() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return deleteByIndex(0);
+	}
+
+	/**
+	 * Return and delete the greatest element.
+	 * Complexity: O(log(size))
+	 */
+	public T deleteMax() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return deleteByIndex(maxIndex());
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Complexity: O(log(size))
+	 */
+	public void add(T e) throws FullHeapException {
+		if ( size == array.length )
+			throw new FullHeapException();
+		array[size++] = e;
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Return the array of the heap.
+	 * This method is only for testing purposes.
+	 * @return the array of the heap
+	 */
+	protected T[] getArray() {
+		return array;
+	}
+
+	@Override
+	public String toString() {
+		return "MinMaxHeap{" +
+				"array=" + Arrays.toString(array) +
+				", size=" + size +
+				'}';
+	}
+}
@@ -0,0 +1,245 @@
+package asdpoo.binarytrees;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Concurrent relaxed priority queue (MultiQueue) made of several
+ * BinaryHeap shards, each protected by its own lock.
+ * add puts the element in a random shard.
+ * deleteExtreme samples two random shards and deletes the extreme element
+ * of the better one ("power of two choices").
+ * Threads rarely wait on the same lock, so the throughput grows
+ * with the number of threads, at the price of a relaxed order:
+ * deleteExtreme does not always return the extreme element of the whole queue.
+ * With s shards, the rank of the returned element (0 for the true extreme)
+ * is O(s) in expectation and O(s.log(s)) with high probability
+ * (Rihani, Sanders, Dementiev, "MultiQueues", SPAA 2015;
+ * Alistarh et al., "The power of choice in priority scheduling", PODC 2017).
+ * With a single shard the order is strict.
+ * There is no counter shared by all the threads: each shard publishes
+ * its own size, and size() sums them.
+ * The shards are growable heaps.
+ */
+public class MultiQueue<T extends Comparable<? super T>> {
+
+	private static final int DEFAULT_SHARD_CAPACITY = 16;
+
+	private final BinaryHeap<T>[] shards;
+	private final ReentrantLock[] locks;
+	// extreme element of each shard, null when the shard is empty
+	// it is written under the lock of the shard and read without lock
+	private final AtomicReferenceArray<T> tops;
+	// size of each shard, written and read as tops
+	private final AtomicIntegerArray sizes;
+
+	// comparator to choose
+	private final Comparator<T> comparator;
+
+	///////////// Constructors
+
+	/**
+	 * Build an empty queue of 2 shards per available processor.
+	 * The elements are ordered according to comparator.
+	 */
+	public MultiQueue(Comparator<T> comparator) {
+		this(2 * Runtime.getRuntime().availableProcessors(), comparator);
+	}
+
+	/**
+	 * Build an empty queue of nbShards shards.
+	 * The elements are ordered according to comparator.
+	 */
+	public MultiQueue(int nbShards, Comparator<T> comparator) {
+		this(nbShards, DEFAULT_SHARD_CAPACITY, comparator);
+	}
+
+	/**
+	 * Build an empty queue of nbShards shards
+	 * of initial capacity shardCapacity.
+	 * The elements are ordered according to comparator.
+	 */
+	public MultiQueue(int nbShards, int shardCapacity, Comparator<T> comparator) {
+		if ( nbShards < 1 )
+			throw new IllegalArgumentException("nbShards must be at least 1");
+		this.comparator = comparator;
+		@SuppressWarnings("unchecked") // every shard is a BinaryHeap<T>
+		BinaryHeap<T>[] shards = (BinaryHeap<T>[]) new BinaryHeap<?>[nbShards];
+		this.shards = shards;
+		locks = new ReentrantLock[nbShards];
+		tops = new AtomicReferenceArray<>(nbShards);
+		sizes = new AtomicIntegerArray(nbShards);
+		for (int i = 0; i < nbShards; i++) {
+			shards[i] = new BinaryHeap<>(shardCapacity, comparator, true);
+			locks[i] = new ReentrantLock();
+		}
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Publish the extreme element and the size of shard i.
+	 * Precondition: the lock of shard i is held
+	 * Complexity: THETA(1)
+	 */
+	private void refreshTop(int i) throws EmptyHeapException {
+		tops.set(i, shards[i].isEmpty() ? null : shards[i].extreme());
+		sizes.set(i, shards[i].size());
+	}
+
+	/**
+	 * Delete the extreme element of shard i if it is not empty
+	 * and return it, otherwise return null.
+	 * Precondition: the lock of shard i is held
+	 * Complexity: O(log(size of the shard))
+	 */
+	private T deleteFromShard(int i) throws EmptyHeapException {
+		if ( shards[i].isEmpty() )
+			return null;
+		T e = shards[i].deleteExtreme();
+		refreshTop(i);
+		return e;
+	}
+
+	/**
+	 * Return and delete the extreme element of the first non empty shard.
+	 * Throw EmptyHeapException if the queue is empty.
+	 * Complexity: O(number of shards + log(size of the shard))
+	 */
+	private T deleteFromAnyShard() throws EmptyHeapException {
+		while ( !isEmpty() ) {
+			for (int i = 0; i < shards.length; i++) {
+				locks[i].lock();
+				try {
+					T e = deleteFromShard(i);
+					if ( e != null )
+						return e;
+				} finally {
+					locks[i].unlock();
+				}
+			}
+		}
+		throw new EmptyHeapException();
+	}
+
+	/**
+	 * Check if a is better than b, an empty shard (null) being the worst.
+	 * Complexity: THETA(1)
+	 */
+	private boolean better(T a, T b) {
+		return b == null || (a != null && comparator.compare(a, b) >= 0);
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the number of shards.
+	 * Complexity: THETA(1)
+	 */
+	public int nbShards() {
+		return shards.length;
+	}
+
+	/**
+	 * Return the number of elements in the queue.
+	 * Concurrent updates may make the result out of date.
+	 * Complexity: THETA(number of shards)
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < shards.length; i++)
+			size += sizes.get(i);
+		return size;
+	}
+
+	/**
+	 * Check if the queue is empty.
+	 * Concurrent updates may make the result out of date.
+	 * Complexity: O(number of shards)
+	 */
+	public boolean isEmpty() {
+		for (int i = 0; i < shards.length; i++)
+			if ( sizes.get(i) > 0 )
+				return false;
+		return true;
+	}
+
+	/**
+	 * Add a new element in a random shard.
+	 * Complexity: O(log(size of the shard))
+	 */
+	public void add(T e) throws FullHeapException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int i = random.nextInt(shards.length);
+		while ( !locks[i].tryLock() ) //another thread uses this shard, choose another one
+			i = random.nextInt(shards.length);
+		try {
+			shards[i].add(e);
+			refreshTop(i);
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		} finally {
+			locks[i].unlock();
+		}
+	}
+
+	/**
+	 * Return the best extreme element among the shards.
+	 * Concurrent updates may make the result out of date.
+	 * Complexity: THETA(number of shards)
+	 */
+	public T extreme() throws EmptyHeapException {
+		T best = null;
+		for (int i = 0; i < shards.length; i++) {
+			T top = tops.get(i);
+			if ( better(top, best) )
+				best = top;
+		}
+		if ( best == null )
+			throw new EmptyHeapException();
+		return best;
+	}
+
+	/**
+	 * Return and delete the extreme element of the better one
+	 * of two random shards.
+	 * Throw EmptyHeapException if the queue is empty
+	 * (every shard is looked at before).
+	 * Complexity: O(log(size of the shard)) expected
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int emptySamples = 0;
+		while ( true ) {
+			int i = random.nextInt(shards.length);
+			int j = random.nextInt(shards.length);
+			int k = better(tops.get(i), tops.get(j)) ? i : j;
+			if ( tops.get(k) == null ) {
+				if ( ++emptySamples > shards.length ) //few elements left: look at every shard
+					return deleteFromAnyShard();
+				continue;
+			}
+			if ( !locks[k].tryLock() ) //another thread uses this shard, sample again
+				continue;
+			try {
+				T e = deleteFromShard(k);
+				if ( e != null )
+					return e;
+			} finally {
+				locks[k].unlock();
+			}
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "MultiQueue{" +
+				"shards=" + shards.length +
+				", size=" + size() +
+				'}';
+	}
+}
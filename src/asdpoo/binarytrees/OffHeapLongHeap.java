@@ -0,0 +1,378 @@
+package asdpoo.binarytrees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+/**
+ * binary heap of long keys stored outside of the Java heap.
+ * Each node is a slot of the key followed by an optional payload of
+ * payloadWidth bytes, which moves with its key.
+ * The slots live in direct ByteBuffers, or in a memory-mapped file,
+ * so the garbage collector never scans them and the size of the heap
+ * does not change GC pause times.
+ * A ByteBuffer holds at most 2 GiB, so the slots are split in chunks.
+ * The heap must be closed when it is no longer used.
+ * The memory of a direct or mapped buffer is released by the JVM
+ * once the closed heap is unreachable: Java 17 has no public way to
+ * free it earlier.
+ */
+public class OffHeapLongHeap implements AutoCloseable {
+
+	private static final int KEY_WIDTH = Long.BYTES;
+	// the size of a chunk, a power of two
+	private static final int DEFAULT_CHUNK_BYTES = 1 << 30;
+
+	private final HeapOrder order;
+	private final int payloadWidth; // the number of bytes of payload of each slot
+	private final int slotWidth;    // the number of bytes of each slot
+	private final int capacity;
+	private final int chunkShift;   // a chunk holds 2^chunkShift slots
+	private final int chunkMask;
+
+	private ByteBuffer[] chunks; // to store the heap, null once closed
+	private FileChannel channel; // the mapped file, null for direct buffers
+	private int size;    // the number of elements in the heap
+
+	// payload of the element which is percolated
+	private final byte[] payload;
+
+	///////////// Constructors
+
+	/**
+	 * Build a heap of capacity n keys without payload in direct memory.
+	 * The extreme key is chosen according to order.
+	 * The heap is empty.
+	 */
+	public OffHeapLongHeap(int n, HeapOrder order) {
+		this(n, 0, order);
+	}
+
+	/**
+	 * Build a heap of capacity n keys with a payload of
+	 * payloadWidth bytes each in direct memory.
+	 * The extreme key is chosen according to order.
+	 * The heap is empty.
+	 */
+	public OffHeapLongHeap(int n, int payloadWidth, HeapOrder order) {
+		this(n, payloadWidth, order, DEFAULT_CHUNK_BYTES);
+		for (int c = 0; c < chunks.length; c++)
+			chunks[c] = ByteBuffer.allocateDirect(chunkBytes(c)).order(ByteOrder.nativeOrder());
+	}
+
+	/**
+	 * Build a heap of capacity n keys with a payload of
+	 * payloadWidth bytes each in the memory-mapped file file.
+	 * The file is created if needed and its content is overwritten.
+	 * The extreme key is chosen according to order.
+	 * The heap is empty.
+	 */
+	public OffHeapLongHeap(Path file, int n, int payloadWidth, HeapOrder order) throws IOException {
+		this(file, n, payloadWidth, order, DEFAULT_CHUNK_BYTES);
+	}
+
+	/**
+	 * Build a heap in the memory-mapped file file,
+	 * with chunks of at most maxChunkBytes bytes.
+	 * This constructor is only for testing purposes.
+	 */
+	OffHeapLongHeap(Path file, int n, int payloadWidth, HeapOrder order, int maxChunkBytes) throws IOException {
+		this(n, payloadWidth, order, maxChunkBytes);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			for (int c = 0; c < chunks.length; c++)
+				chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, ((long) c << chunkShift) * slotWidth, chunkBytes(c))
+						.order(ByteOrder.nativeOrder());
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Compute the layout of a heap of capacity n whose chunks are
+	 * at most maxChunkBytes bytes. The chunks are not allocated.
+	 */
+	private OffHeapLongHeap(int n, int payloadWidth, HeapOrder order, int maxChunkBytes) {
+		if ( n < 0 || payloadWidth < 0 )
+			throw new IllegalArgumentException("capacity and payloadWidth must be positive");
+		this.order = order;
+		this.payloadWidth = payloadWidth;
+		this.slotWidth = KEY_WIDTH + payloadWidth;
+		this.capacity = n;
+		if ( maxChunkBytes < slotWidth )
+			throw new IllegalArgumentException("a chunk must hold at least one slot");
+		int maxShift = 31 - Integer.numberOfLeadingZeros(maxChunkBytes / slotWidth);
+		int neededShift = 32 - Integer.numberOfLeadingZeros(Math.max(n - 1, 1));
+		chunkShift = Math.min(maxShift, neededShift);
+		chunkMask = (1 << chunkShift) - 1;
+		chunks = new ByteBuffer[(int) (((long) n + chunkMask) >>> chunkShift)];
+		payload = new byte[payloadWidth];
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Return the number of bytes of chunk number c.
+	 * Only the last chunk may be smaller than the others.
+	 */
+	private int chunkBytes(int c) {
+		int slots = Math.min(1 << chunkShift, capacity - (c << chunkShift));
+		return slots * slotWidth;
+	}
+
+	private ByteBuffer chunk(int i) {
+		return chunks[i >>> chunkShift];
+	}
+
+	private int offset(int i) {
+		return (i & chunkMask) * slotWidth;
+	}
+
+	private long key(int i) {
+		return chunk(i).getLong(offset(i));
+	}
+
+	/**
+	 * Copy the slot of node number from into the slot of node number to.
+	 * Complexity: THETA(payloadWidth)
+	 */
+	private void move(int from, int to) {
+		ByteBuffer src = chunk(from);
+		ByteBuffer dst = chunk(to);
+		int srcOffset = offset(from);
+		int dstOffset = offset(to);
+		dst.putLong(dstOffset, src.getLong(srcOffset));
+		if ( payloadWidth > 0 )
+			dst.put(dstOffset + KEY_WIDTH, src, srcOffset + KEY_WIDTH, payloadWidth);
+	}
+
+	/**
+	 * Write key and payload in the slot of node number i.
+	 */
+	private void write(int i, long key, byte[] payload) {
+		ByteBuffer dst = chunk(i);
+		dst.putLong(offset(i), key);
+		if ( payloadWidth > 0 )
+			dst.put(offset(i) + KEY_WIDTH, payload);
+	}
+
+	/**
+	 * Copy the payload of node number i into dst.
+	 */
+	private void readPayload(int i, byte[] dst) {
+		if ( payloadWidth > 0 )
+			chunk(i).get(offset(i) + KEY_WIDTH, dst);
+	}
+
+	/**
+	 * Check if a must be above b in the heap.
+	 * Complexity: THETA(1)
+	 */
+	private boolean above(long a, long b) {
+		return order == HeapOrder.MAX ? a > b : a < b;
+	}
+
+	private void checkOpen() {
+		if ( chunks == null )
+			throw new IllegalStateException("the heap is closed");
+	}
+
+	private void checkPayload(byte[] payload) {
+		if ( payloadWidth > 0 && (payload == null || payload.length != payloadWidth) )
+			throw new IllegalArgumentException("the payload must have " + payloadWidth + " bytes");
+	}
+
+	/**
+	 * Percolate down the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateDown(int n) {
+		long e = key(n);
+		readPayload(n, payload);
+		int child = 2*n + 1;
+		while ( child < size ) {
+			int right = child + 1;
+			if ( right < size && above(key(right), key(child)) )
+				child = right;
+			if ( !above(key(child), e) )
+				break;
+			move(child, n); //move the child up
+			n = child;
+			child = 2*n + 1;
+		}
+		write(n, e, payload); //insert the element in the right place
+	}
+
+	/**
+	 * Percolate up the element of node number n
+	 * Complexity: O(log(size))
+	 */
+	private void percolateUp(int n) {
+		long e = key(n);
+		readPayload(n, payload);
+		while ( n > 0 && above(e, key((n - 1)/2)) ) {
+			move((n - 1)/2, n); //move the parent down
+			n = (n - 1)/2;
+		}
+		write(n, e, payload); //insert the element in the right place
+	}
+
+	/**
+	 * Delete the element of node number i
+	 * and restore the heap property.
+	 * Complexity: O(log(size))
+	 */
+	private void deleteByIndex(int i) {
+		size--;
+		if ( i < size ) {
+			move(size, i);
+			percolateUp(i);
+			percolateDown(i);
+		}
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the maximal number of elements of the heap.
+	 * Complexity: THETA(1)
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Return the number of bytes of payload of each element.
+	 * Complexity: THETA(1)
+	 */
+	public int payloadWidth() {
+		return payloadWidth;
+	}
+
+	/**
+	 * Return the extreme key.
+	 * Complexity: THETA(1)
+	 */
+	public long extreme() throws EmptyHeapException {
+		checkOpen();
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return key(0);
+	}
+
+	/**
+	 * Copy the payload of the extreme key into dst
+	 * and return the extreme key.
+	 * Complexity: THETA(payloadWidth)
+	 */
+	public long extreme(byte[] dst) throws EmptyHeapException {
+		long extreme = extreme();
+		checkPayload(dst);
+		readPayload(0, dst);
+		return extreme;
+	}
+
+	/**
+	 * Return and delete the extreme key.
+	 * Complexity: O(log(size))
+	 */
+	public long deleteExtreme() throws EmptyHeapException {
+		long extreme = extreme();
+		deleteByIndex(0);
+		return extreme;
+	}
+
+	/**
+	 * Copy the payload of the extreme key into dst,
+	 * then return and delete the extreme key.
+	 * Complexity: O(log(size))
+	 */
+	public long deleteExtreme(byte[] dst) throws EmptyHeapException {
+		long extreme = extreme(dst);
+		deleteByIndex(0);
+		return extreme;
+	}
+
+	/**
+	 * Add a new key without payload in the heap
+	 * Complexity: O(log(size))
+	 */
+	public void add(long key) throws FullHeapException {
+		if ( payloadWidth > 0 )
+			throw new IllegalArgumentException("the payload must have " + payloadWidth + " bytes");
+		add(key, payload);
+	}
+
+	/**
+	 * Add a new key and its payload in the heap
+	 * Complexity: O(log(size))
+	 */
+	public void add(long key, byte[] payload) throws FullHeapException {
+		checkOpen();
+		checkPayload(payload);
+		if ( size == capacity )
+			throw new FullHeapException();
+		write(size++, key, payload);
+		percolateUp(size-1);
+	}
+
+	/**
+	 * Delete one occurrence of the key from the heap.
+	 * Complexity: O(size)
+	 */
+	public void delete(long key) {
+		checkOpen();
+		for ( int i = 0; i < size; i++ )
+			if ( key(i) == key ) {
+				deleteByIndex(i);
+				return;
+			}
+	}
+
+	/**
+	 * Release the buffers and close the mapped file.
+	 * The heap can no longer be used.
+	 */
+	@Override
+	public void close() throws IOException {
+		chunks = null;
+		size = 0;
+		if ( channel != null ) {
+			channel.close();
+			channel = null;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "OffHeapLongHeap{" +
+				"size=" + size +
+				", capacity=" + capacity +
+				", payloadWidth=" + payloadWidth +
+				", order=" + order +
+				", mapped=" + (channel != null) +
+				'}';
+	}
+}
@@ -0,0 +1,297 @@
+package asdpoo.binarytrees;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+
+
+/**
+ * Pairing heap implementation: a meldable heap.
+ * The heap is a tree whose root is the extreme element; each node keeps
+ * its first child and its next sibling.
+ * Two heaps are melded in THETA(1) by linking their roots:
+ * the worse root becomes the first child of the better one.
+ * deleteExtreme links the children of the root by pairs, from left
+ * to right, then links the pairs from right to left.
+ * Complexity: add and meld THETA(1), deleteExtreme O(log(size)) amortized
+ * (Fredman, Sedgewick, Sleator, Tarjan, "The pairing heap", Algorithmica 1986)
+ * The heap is never full.
+ */
+public class PairingHeap<T extends Comparable<? super T>> {
+
+	/**
+	 * A node of the heap.
+	 * prev is the previous sibling, or the parent for a first child.
+	 */
+	private static final class Node<T> {
+		private final T element;
+		private Node<T> child;
+		private Node<T> sibling;
+		private Node<T> prev;
+
+		Node(T element) {
+			this.element = element;
+		}
+	}
+
+	private Node<T> root; // the extreme element, null when the heap is empty
+	private int size;    // the number of elements in the heap
+
+	// comparator to choose
+	private Comparator<T> comparator = Comparator.naturalOrder();
+
+	///////////// Constructors
+
+	/**
+	 * Build an empty heap.
+	 * The elements are ordered according to the
+	 * natural order on T.
+	 * Complexity: THETA(1)
+	 */
+	public PairingHeap() {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Build an empty heap.
+	 * The elements are ordered according to comparator.
+	 * Complexity: THETA(1)
+	 */
+	public PairingHeap(Comparator<T> comparator) {
+		this();
+		this.comparator = comparator;
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Link the roots a and b of two trees and return the new root.
+	 * Precondition: a and b have no sibling and no prev
+	 * Complexity: THETA(1)
+	 */
+	private Node<T> link(Node<T> a, Node<T> b) {
+		if ( comparator.compare(b.element, a.element) > 0 ) {
+			Node<T> tmp = a;
+			a = b;
+			b = tmp;
+		}
+		// b becomes the first child of a
+		b.sibling = a.child;
+		if ( a.child != null )
+			a.child.prev = b;
+		b.prev = a;
+		a.child = b;
+		return a;
+	}
+
+	/**
+	 * Link the list of siblings starting with first into one tree
+	 * and return its root (null for an empty list).
+	 * Complexity: O(log(size)) amortized
+	 */
+	private Node<T> combineSiblings(Node<T> first) {
+		// first pass: link by pairs from left to right,
+		// the pairs are pushed on a stack made of their sibling links
+		Node<T> pairs = null;
+		while ( first != null ) {
+			Node<T> a = first;
+			Node<T> b = a.sibling;
+			first = b == null ? null : b.sibling;
+			a.sibling = null;
+			a.prev = null;
+			if ( b != null ) {
+				b.sibling = null;
+				b.prev = null;
+				a = link(a, b);
+			}
+			a.sibling = pairs;
+			pairs = a;
+		}
+		// second pass: link the pairs from right to left
+		Node<T> result = null;
+		while ( pairs != null ) {
+			Node<T> next = pairs.sibling;
+			pairs.sibling = null;
+			result = result == null ? pairs : link(pairs, result);
+			pairs = next;
+		}
+		return result;
+	}
+
+	/**
+	 * Remove the node n, which is not the root, from the tree.
+	 * Complexity: THETA(1)
+	 */
+	private void cut(Node<T> n) {
+		if ( n.prev.child == n )
+			n.prev.child = n.sibling;
+		else
+			n.prev.sibling = n.sibling;
+		if ( n.sibling != null )
+			n.sibling.prev = n.prev;
+		n.prev = null;
+		n.sibling = null;
+	}
+
+	/**
+	 * Delete the node n from the heap.
+	 * Complexity: O(log(size)) amortized
+	 */
+	private void deleteNode(Node<T> n) {
+		if ( n == root ) {
+			root = combineSiblings(root.child);
+		} else {
+			cut(n);
+			Node<T> subtree = combineSiblings(n.child);
+			if ( subtree != null )
+				root = link(root, subtree);
+		}
+		size--;
+	}
+
+	/**
+	 * Return a node of element e, or null if e is not in the heap.
+	 * The subtrees of nodes worse than e are not searched.
+	 * Complexity: O(size)
+	 */
+	private Node<T> find(T e) {
+		if ( root == null )
+			return null;
+		Deque<Node<T>> toVisit = new ArrayDeque<>();
+		toVisit.push(root);
+		while ( !toVisit.isEmpty() ) {
+			Node<T> n = toVisit.pop();
+			if ( n.element.compareTo(e) == 0 )
+				return n;
+			if ( n.sibling != null )
+				toVisit.push(n.sibling);
+			if ( n.child != null && comparator.compare(e, n.element) < 0 ) // e may be in the subtree
+				toVisit.push(n.child);
+		}
+		return null;
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the extreme element.
+	 * Complexity: THETA(1)
+	 */
+	public T extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		return root.element;
+	}
+
+	/**
+	 * Return and delete the extreme element.
+	 * Complexity: O(log(size)) amortized
+	 */
+	public T deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		T extreme = root.element;
+		deleteNode(root);
+		return extreme;
+	}
+
+	/**
+	 * Add a new element in the heap
+	 * Complexity: THETA(1)
+	 */
+	public void add(T e) {
+		Node<T> n = new Node<>(e);
+		root = root == null ? n : link(root, n);
+		size++;
+	}
+
+	/**
+	 * Move all the elements of other into this heap.
+	 * other is empty afterwards.
+	 * Precondition: both heaps use the same order
+	 * Complexity: THETA(1)
+	 */
+	public void meld(PairingHeap<T> other) {
+		if ( other == this || other.root == null )
+			return;
+		root = root == null ? other.root : link(root, other.root);
+		size += other.size;
+		other.root = null;
+		other.size = 0;
+	}
+
+	/**
+	 * Delete one occurrence of the element e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void delete(T e) {
+		Node<T> n = find(e);
+		if ( n != null )
+			deleteNode(n);
+	}
+
+	/**
+	 * Delete all the elements e from the heap.
+	 * Complexity: O(size)
+	 */
+	public void deleteAll(T e) {
+		// the other elements are linked again as single nodes
+		Node<T> kept = null; // list of the kept nodes, made of sibling links
+		int keptSize = 0;
+		Deque<Node<T>> toVisit = new ArrayDeque<>();
+		if ( root != null )
+			toVisit.push(root);
+		while ( !toVisit.isEmpty() ) {
+			Node<T> n = toVisit.pop();
+			if ( n.sibling != null )
+				toVisit.push(n.sibling);
+			if ( n.child != null )
+				toVisit.push(n.child);
+			n.child = null;
+			n.prev = null;
+			n.sibling = null;
+			if ( n.element.compareTo(e) != 0 ) {
+				n.sibling = kept;
+				kept = n;
+				keptSize++;
+			}
+		}
+		root = combineSiblings(kept);
+		size = keptSize;
+	}
+
+	/**
+	 * Check if the element t is in a node without child.
+	 * Complexity: O(size)
+	 */
+	public boolean isLeaf(T t) {
+		Node<T> n = find(t);
+		return n != null && n.child == null;
+	}
+
+	@Override
+	public String toString() {
+		return "PairingHeap{" +
+				"size=" + size +
+				", extreme=" + (root == null ? null : root.element) +
+				'}';
+	}
+}
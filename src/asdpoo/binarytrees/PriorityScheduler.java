@@ -0,0 +1,411 @@
+package asdpoo.binarytrees;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+
+/**
+ * Scheduler of prioritized and delayed tasks on an executor.
+ * The tasks ready to run are kept in a BinaryHeap, the highest
+ * priority first and in submission order for equal priorities.
+ * The delayed tasks are kept in a second BinaryHeap, the first due first,
+ * and a timer thread moves them to the ready heap when they are due.
+ * There is no dispatcher thread: each ready task sends one job to the
+ * executor, and this job runs the best ready task when it starts, so
+ * the tasks are dispatched in heap order by all the workers at once.
+ * Any executor can be used: a fixed pool, or on Java 21+ a virtual
+ * thread per task executor.
+ * A cancelled task is removed from its heap by lazy deletion; the heaps
+ * are indexed, so finding the task to delete is THETA(1). The tasks have
+ * the equals and hashCode of Object, consistent with their order since
+ * two tasks never have the same sequence number.
+ * The scheduling latency of a task is the time from its submission,
+ * or its due time, to its start; the last 4096 latencies are kept.
+ */
+public class PriorityScheduler implements AutoCloseable {
+
+	private static final int NB_LATENCY_SAMPLES = 4096;
+	private static final double MAX_DEAD_RATIO = 0.5;
+
+	// where a task is
+	private static final int READY = 0;
+	private static final int DELAYED = 1;
+	private static final int REMOVED = 2;
+
+	// the highest priority first, then the first submitted
+	private static final Comparator<ScheduledTask<?>> READY_ORDER = (a, b) -> a.priority != b.priority
+			? Integer.compare(a.priority, b.priority)
+			: Long.compare(b.sequence, a.sequence);
+	// the first due first, then the first submitted
+	private static final Comparator<ScheduledTask<?>> DUE_ORDER = (a, b) -> a.readyNanos != b.readyNanos
+			? Long.signum(b.readyNanos - a.readyNanos)
+			: Long.compare(b.sequence, a.sequence);
+
+	private final Executor executor;
+	// the thread pool created by the scheduler, null for an executor of the caller
+	private final ExecutorService ownPool;
+
+	private final ReentrantLock lock = new ReentrantLock();
+	// signaled when the first due task changes
+	private final Condition firstDueChanged = lock.newCondition();
+	private final BinaryHeap<ScheduledTask<?>> ready;
+	private final BinaryHeap<ScheduledTask<?>> delayed;
+	private long nbSubmitted = 0;
+	private Thread timer; // started by the first delayed task
+	private boolean shutdown = false;
+
+	private final AtomicLongArray latencies = new AtomicLongArray(NB_LATENCY_SAMPLES);
+	private final AtomicLong nbStarted = new AtomicLong();
+
+	/**
+	 * A task of the scheduler.
+	 * Cancelling it removes it from the scheduler.
+	 */
+	public final class ScheduledTask<V> extends FutureTask<V> implements Comparable<ScheduledTask<?>> {
+		private final int priority;
+		private final long sequence;
+		private final long readyNanos; // the due time or the submission time
+		private int state;             // READY, DELAYED or REMOVED, guarded by lock
+
+		private ScheduledTask(Callable<V> callable, int priority, long sequence, long readyNanos) {
+			super(callable);
+			this.priority = priority;
+			this.sequence = sequence;
+			this.readyNanos = readyNanos;
+		}
+
+		/**
+		 * Return the priority of the task.
+		 */
+		public int priority() {
+			return priority;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			boolean cancelled = super.cancel(mayInterruptIfRunning);
+			if ( cancelled )
+				remove(this);
+			return cancelled;
+		}
+
+		@Override
+		public int compareTo(ScheduledTask<?> other) {
+			return READY_ORDER.compare(this, other);
+		}
+	}
+
+	///////////// Constructors
+
+	/**
+	 * Build a scheduler running its tasks on a pool of nbWorkers threads.
+	 * The pool is shut down with the scheduler.
+	 */
+	public PriorityScheduler(int nbWorkers) {
+		this(Executors.newFixedThreadPool(nbWorkers), true);
+	}
+
+	/**
+	 * Build a scheduler running its tasks on executor.
+	 * Shutting down the scheduler does not shut down executor.
+	 */
+	public PriorityScheduler(Executor executor) {
+		this(executor, false);
+	}
+
+	private PriorityScheduler(Executor executor, boolean ownsExecutor) {
+		this.executor = executor;
+		this.ownPool = ownsExecutor ? (ExecutorService) executor : null;
+		ready = new BinaryHeap<ScheduledTask<?>>(16, READY_ORDER, true);
+		ready.enableIndex();
+		ready.enableLazyDeletion(MAX_DEAD_RATIO);
+		delayed = new BinaryHeap<ScheduledTask<?>>(16, DUE_ORDER, true);
+		delayed.enableIndex();
+		delayed.enableLazyDeletion(MAX_DEAD_RATIO);
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Add task in the ready heap.
+	 * Precondition: the lock is held
+	 * Complexity: O(log(size))
+	 */
+	private void addReady(ScheduledTask<?> task) {
+		try {
+			ready.add(task);
+			task.state = READY;
+		} catch (FullHeapException impossible) { // the heap is growable
+			throw new IllegalStateException(impossible);
+		}
+	}
+
+	/**
+	 * Remove task from its heap.
+	 * Complexity: O(1) amortized
+	 */
+	private void remove(ScheduledTask<?> task) {
+		lock.lock();
+		try {
+			if ( task.state == READY )
+				ready.delete(task);
+			else if ( task.state == DELAYED ) {
+				delayed.delete(task);
+				firstDueChanged.signal();
+			}
+			task.state = REMOVED;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Send a job to the executor, which runs the best ready task.
+	 */
+	private void dispatch() {
+		executor.execute(this::runNext);
+	}
+
+	/**
+	 * Run the best ready task, if any.
+	 * Complexity: O(log(size)) amortized
+	 */
+	private void runNext() {
+		ScheduledTask<?> task;
+		lock.lock();
+		try {
+			if ( ready.isEmpty() ) // its task was cancelled
+				return;
+			task = ready.deleteExtreme();
+			task.state = REMOVED;
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		} finally {
+			lock.unlock();
+		}
+		long latency = System.nanoTime() - task.readyNanos;
+		latencies.set((int) (nbStarted.getAndIncrement() % NB_LATENCY_SAMPLES), Math.max(latency, 0));
+		task.run();
+	}
+
+	/**
+	 * Move the due tasks to the ready heap until shutdown.
+	 */
+	private void runTimer() {
+		while ( true ) {
+			int nbDue = 0;
+			lock.lock();
+			try {
+				if ( shutdown )
+					return;
+				long now = System.nanoTime();
+				while ( !delayed.isEmpty() && delayed.extreme().readyNanos - now <= 0 ) {
+					addReady(delayed.deleteExtreme());
+					nbDue++;
+				}
+				if ( nbDue == 0 ) {
+					if ( delayed.isEmpty() )
+						firstDueChanged.await();
+					else
+						firstDueChanged.awaitNanos(delayed.extreme().readyNanos - now);
+				}
+			} catch (EmptyHeapException impossible) {
+				throw new IllegalStateException(impossible);
+			} catch (InterruptedException e) {
+				return;
+			} finally {
+				lock.unlock();
+			}
+			try {
+				for (int i = 0; i < nbDue; i++ )
+					dispatch();
+			} catch (RejectedExecutionException e) {
+				// the ready tasks run with the next dispatched jobs
+			}
+		}
+	}
+
+	/**
+	 * Queue callable with priority priority, delayed by delayNanos nanoseconds.
+	 */
+	private <V> ScheduledTask<V> enqueue(Callable<V> callable, int priority, long delayNanos) {
+		ScheduledTask<V> task;
+		lock.lock();
+		try {
+			if ( shutdown )
+				throw new RejectedExecutionException("the scheduler is shut down");
+			long now = System.nanoTime();
+			task = new ScheduledTask<>(callable, priority, nbSubmitted++, now + Math.max(delayNanos, 0));
+			if ( delayNanos <= 0 )
+				addReady(task);
+			else {
+				try {
+					delayed.add(task);
+				} catch (FullHeapException impossible) { // the heap is growable
+					throw new IllegalStateException(impossible);
+				}
+				task.state = DELAYED;
+				if ( timer == null ) {
+					timer = new Thread(this::runTimer, "PriorityScheduler-timer");
+					timer.setDaemon(true);
+					timer.start();
+				}
+				firstDueChanged.signal();
+				return task;
+			}
+		} finally {
+			lock.unlock();
+		}
+		try {
+			dispatch();
+		} catch (RejectedExecutionException e) {
+			task.cancel(false);
+			throw e;
+		}
+		return task;
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Submit task with priority priority:
+	 * the greater the priority, the sooner the task runs.
+	 * Complexity: O(log(size))
+	 */
+	public <V> ScheduledTask<V> submit(Callable<V> task, int priority) {
+		return enqueue(task, priority, 0);
+	}
+
+	/**
+	 * Submit task with priority priority.
+	 * Complexity: O(log(size))
+	 */
+	public ScheduledTask<Void> submit(Runnable task, int priority) {
+		return enqueue(Executors.callable(task, null), priority, 0);
+	}
+
+	/**
+	 * Submit task with priority priority, which becomes
+	 * ready to run after delay.
+	 * Complexity: O(log(size))
+	 */
+	public <V> ScheduledTask<V> schedule(Callable<V> task, int priority, long delay, TimeUnit unit) {
+		return enqueue(task, priority, unit.toNanos(delay));
+	}
+
+	/**
+	 * Submit task with priority priority, which becomes
+	 * ready to run after delay.
+	 * Complexity: O(log(size))
+	 */
+	public ScheduledTask<Void> schedule(Runnable task, int priority, long delay, TimeUnit unit) {
+		return enqueue(Executors.callable(task, null), priority, unit.toNanos(delay));
+	}
+
+	/**
+	 * Return the number of tasks waiting to run, ready or delayed.
+	 * Complexity: THETA(1)
+	 */
+	public int queueDepth() {
+		lock.lock();
+		try {
+			return ready.size() + delayed.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the number of tasks which are not due yet.
+	 * Complexity: THETA(1)
+	 */
+	public int delayedCount() {
+		lock.lock();
+		try {
+			return delayed.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Return the number of tasks started since the creation of the scheduler.
+	 * Complexity: THETA(1)
+	 */
+	public long startedCount() {
+		return nbStarted.get();
+	}
+
+	/**
+	 * Return the percentile p (in [0, 1]) of the scheduling
+	 * latencies of the last started tasks, in nanoseconds,
+	 * or 0 if no task has started.
+	 * Complexity: O(n.log(n)) for n = 4096 samples
+	 */
+	public long schedulingLatency(double p) {
+		if ( p < 0 || p > 1 )
+			throw new IllegalArgumentException("p must be in [0, 1]");
+		int n = (int) Math.min(nbStarted.get(), NB_LATENCY_SAMPLES);
+		if ( n == 0 )
+			return 0;
+		long[] samples = new long[n];
+		for (int i = 0; i < n; i++ )
+			samples[i] = latencies.get(i);
+		Arrays.sort(samples);
+		return samples[Math.max((int) Math.ceil(p * n) - 1, 0)];
+	}
+
+	/**
+	 * Stop accepting tasks and cancel the delayed tasks.
+	 * The ready tasks still run.
+	 * An executor given by the caller is not shut down.
+	 */
+	public void shutdown() {
+		List<ScheduledTask<?>> cancelled = new ArrayList<>();
+		lock.lock();
+		try {
+			shutdown = true;
+			while ( !delayed.isEmpty() ) {
+				ScheduledTask<?> task = delayed.deleteExtreme();
+				task.state = REMOVED;
+				cancelled.add(task);
+			}
+			firstDueChanged.signal();
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		} finally {
+			lock.unlock();
+		}
+		for (ScheduledTask<?> task : cancelled)
+			task.cancel(false);
+		if ( ownPool != null )
+			ownPool.shutdown();
+	}
+
+	@Override
+	public void close() {
+		shutdown();
+	}
+
+	@Override
+	public String toString() {
+		return "PriorityScheduler{" +
+				"queueDepth=" + queueDepth() +
+				", delayed=" + delayedCount() +
+				", started=" + startedCount() +
+				'}';
+	}
+}
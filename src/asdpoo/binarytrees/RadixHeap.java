@@ -0,0 +1,204 @@
+package asdpoo.binarytrees;
+
+import java.util.Arrays;
+
+
+/**
+ * radix heap of long keys for monotone priorities:
+ * the extreme key is the smallest one, and a key can only be added
+ * if it is not smaller than the last deleted extreme key
+ * (e.g. the timestamps of a discrete event simulation).
+ * Bucket number b holds the keys whose highest bit which differs from
+ * the last deleted extreme is bit b-1; bucket 0 holds the keys equal to it.
+ * When bucket 0 is empty, the first non empty bucket is spread over
+ * the lower buckets around its smallest key. A key only moves
+ * to lower buckets, so it moves at most 64 times.
+ * Complexity: add THETA(1), deleteExtreme O(1) amortized
+ * (with O(64) bucket moves per key), without comparing keys in add.
+ * (Ahuja, Mehlhorn, Orlin, Tarjan, "Faster algorithms for the shortest
+ * path problem", JACM 1990)
+ */
+public class RadixHeap {
+
+	private static final int NB_BUCKETS = Long.SIZE + 1;
+
+	// the keys are stored with their sign bit flipped,
+	// so that the unsigned order is the order of the keys
+	private final long[][] buckets = new long[NB_BUCKETS][];
+	private final int[] counts = new int[NB_BUCKETS];
+	private long last;   // the last deleted extreme key, sign bit flipped
+	private int size;    // the number of elements in the heap
+	// the smallest flipped key found by extreme, until the next deleteExtreme
+	private long peeked;
+	private boolean hasPeeked = false;
+
+	///////////// Constructors
+
+	/**
+	 * Build an empty heap.
+	 * Any key can be added first.
+	 * Complexity: THETA(1)
+	 */
+	public RadixHeap() {
+		for (int b = 0; b < NB_BUCKETS; b++)
+			buckets[b] = new long[4];
+		last = flip(Long.MIN_VALUE);
+		size = 0;
+	}
+
+	///////////// Private methods
+
+	/**
+	 * Flip the sign bit of key: the signed order of keys
+	 * becomes the unsigned order of the flipped keys.
+	 * Complexity: THETA(1)
+	 */
+	private static long flip(long key) {
+		return key ^ Long.MIN_VALUE;
+	}
+
+	/**
+	 * Return the number of the bucket of the flipped key u.
+	 * Precondition: u >= last (unsigned)
+	 * Complexity: THETA(1)
+	 */
+	private int bucketIndex(long u) {
+		return Long.SIZE - Long.numberOfLeadingZeros(u ^ last);
+	}
+
+	/**
+	 * Add the flipped key u in bucket number b.
+	 * Complexity: amortized THETA(1)
+	 */
+	private void push(int b, long u) {
+		if ( counts[b] == buckets[b].length )
+			buckets[b] = Arrays.copyOf(buckets[b], 2*counts[b]);
+		buckets[b][counts[b]++] = u;
+	}
+
+	/**
+	 * Return the smallest flipped key, without moving any key:
+	 * the last extreme if bucket 0 is not empty, otherwise
+	 * the smallest key of the first non empty bucket.
+	 * Precondition: size > 0
+	 * Complexity: O(number of keys of this bucket)
+	 */
+	private long smallest() {
+		if ( counts[0] > 0 )
+			return last;
+		int b = 1;
+		while ( counts[b] == 0 )
+			b++;
+		long[] bucket = buckets[b];
+		long min = bucket[0];
+		for (int i = 1; i < counts[b]; i++)
+			if ( Long.compareUnsigned(bucket[i], min) < 0 )
+				min = bucket[i];
+		return min;
+	}
+
+	/**
+	 * Make sure bucket 0 is not empty:
+	 * the smallest key of the first non empty bucket becomes
+	 * the last extreme and the keys of this bucket are spread.
+	 * Precondition: size > 0
+	 * Complexity: O(number of keys of the spread bucket)
+	 */
+	private void pull() {
+		if ( counts[0] > 0 )
+			return;
+		int b = 1;
+		while ( counts[b] == 0 )
+			b++;
+		long[] bucket = buckets[b];
+		int count = counts[b];
+		long min = bucket[0];
+		for (int i = 1; i < count; i++)
+			if ( Long.compareUnsigned(bucket[i], min) < 0 )
+				min = bucket[i];
+		last = min;
+		counts[b] = 0;
+		for (int i = 0; i < count; i++)
+			push(bucketIndex(bucket[i]), bucket[i]); // always a lower bucket
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the size of the heap
+	 * (the number of elements in the heap).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the heap is empty.
+	 * Complexity: THETA(1)
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Return the smallest key that can still be added:
+	 * the last deleted extreme key.
+	 * Complexity: THETA(1)
+	 */
+	public long lowerBound() {
+		return flip(last);
+	}
+
+	/**
+	 * Return the extreme (smallest) key.
+	 * It is not deleted, so lowerBound() does not change.
+	 * Complexity: O(1) amortized
+	 */
+	public long extreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		if ( !hasPeeked ) {
+			peeked = smallest();
+			hasPeeked = true;
+		}
+		return flip(peeked);
+	}
+
+	/**
+	 * Return and delete the extreme (smallest) key.
+	 * Complexity: O(1) amortized
+	 */
+	public long deleteExtreme() throws EmptyHeapException {
+		if ( size == 0 )
+			throw new EmptyHeapException();
+		pull();
+		counts[0]--;
+		size--;
+		hasPeeked = false;
+		return flip(last);
+	}
+
+	/**
+	 * Add a new key in the heap.
+	 * Throw IllegalArgumentException if key is smaller than lowerBound().
+	 * Complexity: amortized THETA(1)
+	 */
+	public void add(long key) {
+		long u = flip(key);
+		if ( Long.compareUnsigned(u, last) < 0 )
+			throw new IllegalArgumentException("key " + key + " is smaller than the last extreme " + flip(last));
+		push(bucketIndex(u), u);
+		size++;
+		if ( hasPeeked && Long.compareUnsigned(u, peeked) < 0 )
+			peeked = u;
+	}
+
+	@Override
+	public String toString() {
+		return "RadixHeap{" +
+				"size=" + size +
+				", lowerBound=" + flip(last) +
+				'}';
+	}
+}
@@ -0,0 +1,176 @@
+package asdpoo.binarytrees;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+
+/**
+ * Select the k greatest elements (according to a comparator)
+ * of a sequence of any length.
+ * The selector keeps the k best elements seen so far in a heap
+ * of capacity k ordered by the opposite comparator, so that the
+ * worst of them is at the root and is replaced by any better element.
+ * Complexity: O(n.log(k)) time and THETA(k) memory for n elements.
+ */
+public class TopKSelector<T extends Comparable<? super T>> implements Consumer<T> {
+
+	private final int k;
+	// the k best elements, the worst one at the root
+	private final BinaryHeap<T> heap;
+
+	// comparator to choose
+	private final Comparator<T> comparator;
+
+	///////////// Constructors
+
+	/**
+	 * Build a selector of the k greatest elements
+	 * according to the natural order on T.
+	 */
+	public TopKSelector(int k) {
+		this(k, Comparator.naturalOrder());
+	}
+
+	/**
+	 * Build a selector of the k greatest elements
+	 * according to comparator.
+	 */
+	public TopKSelector(int k, Comparator<T> comparator) {
+		if ( k < 0 )
+			throw new IllegalArgumentException("k must be non-negative");
+		this.k = k;
+		this.comparator = comparator;
+		this.heap = new BinaryHeap<>(k, comparator.reversed());
+	}
+
+	///////////// Public methods
+
+	/**
+	 * Return the number of selected elements (at most k).
+	 * Complexity: THETA(1)
+	 */
+	public int size() {
+		return heap.size();
+	}
+
+	/**
+	 * Consider the element e.
+	 * Complexity: O(log(k))
+	 */
+	@Override
+	public void accept(T e) {
+		try {
+			if ( heap.size() < k )
+				heap.add(e);
+			else if ( k > 0 && comparator.compare(e, heap.extreme()) > 0 )
+				heap.replaceExtreme(e);
+		} catch (FullHeapException | EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+	}
+
+	/**
+	 * Consider all the elements of iterator.
+	 * Complexity: O(n.log(k))
+	 */
+	public TopKSelector<T> addAll(Iterator<? extends T> iterator) {
+		while ( iterator.hasNext() )
+			accept(iterator.next());
+		return this;
+	}
+
+	/**
+	 * Consider all the elements of array.
+	 * Complexity: O(n.log(k))
+	 */
+	public TopKSelector<T> addAll(T[] array) {
+		for (T e : array)
+			accept(e);
+		return this;
+	}
+
+	/**
+	 * Consider all the elements of other and empty it.
+	 * Complexity: O(k.log(k))
+	 */
+	public TopKSelector<T> merge(TopKSelector<T> other) {
+		try {
+			while ( !other.heap.isEmpty() )
+				accept(other.heap.deleteExtreme());
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+		return this;
+	}
+
+	/**
+	 * Return the selected elements, the greatest first,
+	 * and empty the selector.
+	 * Complexity: O(k.log(k))
+	 */
+	public List<T> result() {
+		List<T> result = new ArrayList<>(heap.size());
+		try {
+			while ( !heap.isEmpty() )
+				result.add(heap.deleteExtreme()); // the worst first
+		} catch (EmptyHeapException impossible) {
+			throw new IllegalStateException(impossible);
+		}
+		Collections.reverse(result);
+		return result;
+	}
+
+	///////////// Static methods
+
+	/**
+	 * Return the k greatest elements of array, the greatest first.
+	 * Complexity: O(n.log(k))
+	 */
+	public static <T extends Comparable<? super T>> List<T> select(T[] array, int k, Comparator<T> comparator) {
+		return new TopKSelector<>(k, comparator).addAll(array).result();
+	}
+
+	/**
+	 * Return the k greatest elements of iterator, the greatest first.
+	 * Complexity: O(n.log(k))
+	 */
+	public static <T extends Comparable<? super T>> List<T> select(Iterator<? extends T> iterator, int k, Comparator<T> comparator) {
+		return new TopKSelector<>(k, comparator).addAll(iterator).result();
+	}
+
+	/**
+	 * Return the k greatest elements of stream, the greatest first.
+	 * Complexity: O(n.log(k))
+	 */
+	public static <T extends Comparable<? super T>> List<T> select(Stream<? extends T> stream, int k, Comparator<T> comparator) {
+		return stream.collect(collector(k, comparator));
+	}
+
+	/**
+	 * Return a collector of the k greatest elements of a stream, the greatest first.
+	 * It can be used on parallel streams: each thread selects its k best
+	 * elements and the selections are merged.
+	 */
+	public static <T extends Comparable<? super T>> Collector<T, ?, List<T>> collector(int k, Comparator<T> comparator) {
+		return Collector.of(
+				() -> new TopKSelector<>(k, comparator),
+				TopKSelector::accept,
+				TopKSelector::merge,
+				TopKSelector::result,
+				Collector.Characteristics.UNORDERED);
+	}
+
+	@Override
+	public String toString() {
+		return "TopKSelector{" +
+				"k=" + k +
+				", heap=" + heap +
+				'}';
+	}
+}
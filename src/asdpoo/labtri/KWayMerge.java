@@ -0,0 +1,262 @@
+package asdpoo.labtri;
+
+import asdpoo.binarytrees.BinaryHeap;
+import asdpoo.binarytrees.EmptyHeapException;
+import asdpoo.binarytrees.FullHeapException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A class for merging k sorted sources into one sorted sequence.
+ * The merged elements are produced lazily, one at a time, so the sources
+ * are never concatenated nor sorted again.
+ * The default engine is a tournament tree of losers: each output element
+ * costs about log2(k) comparisons.
+ * A BinaryHeap based engine is kept as a baseline.
+ * Both merges are stable: equal elements come out in the order of their sources.
+ */
+public class KWayMerge {
+
+	private KWayMerge() {
+	}
+
+	/**
+	 * Merge the sorted arrays runs according to the natural order on T.
+	 */
+	@SafeVarargs
+	public static <T extends Comparable<T>> Iterator<T> merge(T[]... runs) {
+		List<Iterator<T>> sources = new ArrayList<>(runs.length);
+		for (T[] run : runs)
+			sources.add(Arrays.asList(run).iterator());
+		return merge(sources, Comparator.naturalOrder());
+	}
+
+	/**
+	 * Merge the arrays runs sorted according to comparator.
+	 */
+	@SafeVarargs
+	public static <T> Iterator<T> merge(Comparator<? super T> comparator, T[]... runs) {
+		List<Iterator<T>> sources = new ArrayList<>(runs.length);
+		for (T[] run : runs)
+			sources.add(Arrays.asList(run).iterator());
+		return merge(sources, comparator);
+	}
+
+	/**
+	 * Merge the iterators sources sorted according to comparator
+	 * with a tree of losers.
+	 * Complexity: O(log(k)) comparisons per element, k = number of sources
+	 */
+	public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+		return new LoserTree<>(sources, comparator);
+	}
+
+	/**
+	 * Merge the spliterators sources sorted according to comparator
+	 * into a sequential stream.
+	 * Complexity: O(log(k)) comparisons per element, k = number of sources
+	 */
+	public static <T> Stream<T> stream(Collection<? extends Spliterator<? extends T>> sources, Comparator<? super T> comparator) {
+		List<Iterator<T>> iterators = new ArrayList<>(sources.size());
+		long size = 0;
+		for (Spliterator<? extends T> source : sources) {
+			iterators.add(Spliterators.iterator(source));
+			size = source.hasCharacteristics(Spliterator.SIZED) && size >= 0 ? size + source.getExactSizeIfKnown() : -1;
+		}
+		Iterator<T> merged = merge(iterators, comparator);
+		Spliterator<T> spliterator = size >= 0
+				? Spliterators.spliterator(merged, size, Spliterator.ORDERED)
+				: Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED);
+		return StreamSupport.stream(spliterator, false);
+	}
+
+	/**
+	 * Merge the iterators sources sorted according to comparator
+	 * with a BinaryHeap of the heads of the sources.
+	 * Complexity: O(log(k)) per element but about 2.log2(k) comparisons
+	 */
+	public static <T> Iterator<T> mergeWithHeap(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+		return new HeapMerger<>(sources, comparator);
+	}
+
+	/**
+	 * Return the iterators sources in a typed array.
+	 */
+	@SuppressWarnings("unchecked") // an array of Iterator<?> only holds the elements of sources
+	private static <T> Iterator<? extends T>[] toArray(List<? extends Iterator<? extends T>> sources) {
+		return sources.toArray((Iterator<? extends T>[]) new Iterator<?>[sources.size()]);
+	}
+
+	/**
+	 * Tree of losers over k sources.
+	 * The leaves are the heads of the sources: leaf of source i is node k + i.
+	 * Each internal node 1..k-1 keeps the source which lost the match
+	 * played at this node; node 0 keeps the overall winner.
+	 * Replacing the winner only replays the matches on the path
+	 * from its leaf to the root.
+	 */
+	private static class LoserTree<T> implements Iterator<T> {
+		private final Iterator<? extends T>[] sources;
+		private final Comparator<? super T> comparator;
+		private final T[] heads; // the current element of each source
+		private final boolean[] exhausted; // an exhausted source loses every match
+		private final int[] tree;
+
+		LoserTree(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+			int k = sources.size();
+			this.sources = toArray(sources);
+			this.comparator = comparator;
+			@SuppressWarnings("unchecked") // never leaves the tree
+			T[] heads = (T[]) new Object[k];
+			this.heads = heads;
+			exhausted = new boolean[k];
+			tree = new int[Math.max(k, 1)];
+			for (int i = 0; i < k; i++)
+				advance(i);
+			if ( k > 0 )
+				tree[0] = build(1);
+			else
+				tree[0] = -1;
+		}
+
+		/**
+		 * Read the next element of source i.
+		 */
+		private void advance(int i) {
+			if ( sources[i].hasNext() ) {
+				heads[i] = sources[i].next();
+			} else {
+				heads[i] = null; //added for garbage collection
+				exhausted[i] = true;
+			}
+		}
+
+		/**
+		 * Check if source i wins against source j.
+		 * On equal heads, the first source wins so that the merge is stable.
+		 */
+		private boolean wins(int i, int j) {
+			if ( exhausted[i] )
+				return false;
+			if ( exhausted[j] )
+				return true;
+			int cmp = comparator.compare(heads[i], heads[j]);
+			return cmp < 0 || (cmp == 0 && i < j);
+		}
+
+		/**
+		 * Play the matches of the subtree of node number n
+		 * and return the source which wins them.
+		 */
+		private int build(int n) {
+			int k = sources.length;
+			if ( n >= k )
+				return n - k; // a leaf
+			int left = build(2*n);
+			int right = build(2*n + 1);
+			if ( wins(left, right) ) {
+				tree[n] = right;
+				return left;
+			}
+			tree[n] = left;
+			return right;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return tree[0] >= 0 && !exhausted[tree[0]];
+		}
+
+		@Override
+		public T next() {
+			if ( !hasNext() )
+				throw new NoSuchElementException();
+			int winner = tree[0];
+			T e = heads[winner];
+			advance(winner);
+			// replay the matches from the leaf of the winner up to the root
+			for (int n = (sources.length + winner) / 2; n > 0; n /= 2 ) {
+				if ( wins(tree[n], winner) ) {
+					int loser = winner;
+					winner = tree[n];
+					tree[n] = loser;
+				}
+			}
+			tree[0] = winner;
+			return e;
+		}
+	}
+
+	/**
+	 * Head of a source in the BinaryHeap baseline.
+	 */
+	private static class Head<T> implements Comparable<Head<T>> {
+		private final T element;
+		private final int source;
+		private final Comparator<? super T> comparator;
+
+		Head(T element, int source, Comparator<? super T> comparator) {
+			this.element = element;
+			this.source = source;
+			this.comparator = comparator;
+		}
+
+		@Override
+		public int compareTo(Head<T> other) {
+			int cmp = comparator.compare(element, other.element);
+			return cmp != 0 ? cmp : Integer.compare(source, other.source);
+		}
+	}
+
+	/**
+	 * BinaryHeap of the heads of the sources, the smallest head at the root.
+	 */
+	private static class HeapMerger<T> implements Iterator<T> {
+		private final Iterator<? extends T>[] sources;
+		private final Comparator<? super T> comparator;
+		private final BinaryHeap<Head<T>> heap;
+
+		HeapMerger(List<? extends Iterator<? extends T>> sources, Comparator<? super T> comparator) {
+			this.sources = toArray(sources);
+			this.comparator = comparator;
+			heap = new BinaryHeap<Head<T>>(this.sources.length, Comparator.reverseOrder());
+			try {
+				for (int i = 0; i < this.sources.length; i++)
+					if ( this.sources[i].hasNext() )
+						heap.add(new Head<>(this.sources[i].next(), i, comparator));
+			} catch (FullHeapException impossible) {
+				throw new IllegalStateException(impossible);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !heap.isEmpty();
+		}
+
+		@Override
+		public T next() {
+			try {
+				Head<T> head = heap.extreme();
+				Iterator<? extends T> source = sources[head.source];
+				if ( source.hasNext() )
+					heap.replaceExtreme(new Head<>(source.next(), head.source, comparator));
+				else
+					heap.deleteExtreme();
+				return head.element;
+			} catch (EmptyHeapException e) {
+				throw new NoSuchElementException();
+			}
+		}
+	}
+}
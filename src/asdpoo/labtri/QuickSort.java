@@ -1,59 +1,243 @@
 package asdpoo.labtri;
 
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import util.Trace;
+
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
- * A class for the quicksort algorithm
+ * A class for the quicksort algorithm, as an introsort:
+ * the pivot is the median of three elements, the partition is in three
+ * parts (smaller, equal, greater) so that duplicates are never sorted again,
+ * the smaller part is sorted recursively and the greater one in a loop
+ * so that the stack depth is O(log(n)), and a portion which needs more
+ * than 2.log2(n) partitions is sorted by heapsort.
+ * Complexity: O(n.log(n)) in the worst case, O(n) if all the elements are equal
+ * parallelSort sorts the two parts of each partition in parallel,
+ * as tasks of a ForkJoinPool, down to portions of PARALLEL_CUTOFF elements.
  */
 public class QuickSort {
 
 
 
 	private static final int CUTOFF = 10;
-	private static final Logger LOGGER = Logger.getLogger(QuickSort.class.getName());
+	// smaller portions are sorted by one task
+	static final int PARALLEL_CUTOFF = 1 << 13;
+
+	/**
+	 * Sort the array in place using the quicksort algorithm
+	 */
+	public static <T extends Comparable<T>> void sort(T[] array) {
+		sort(array, Comparator.naturalOrder());
+	}
 
-	static {
-		LOGGER.setLevel(Level.SEVERE);
+	/**
+	 * Sort the array in place according to comparator using the quicksort algorithm
+	 */
+	public static <T> void sort(T[] array, Comparator<? super T> comparator) {
+		sort(array, 0, array.length-1, depthLimit(array.length), comparator);
 	}
 
 	/**
 	 * Sort the array in place using the quicksort algorithm
+	 * on the threads of the common ForkJoinPool
 	 */
-	public static <T extends Comparable<T>> void sort(T[] array) {
-		sort(array,0,array.length-1);
+	public static <T extends Comparable<T>> void parallelSort(T[] array) {
+		parallelSort(array, Comparator.naturalOrder());
+	}
+
+	/**
+	 * Sort the array in place according to comparator using the quicksort algorithm
+	 * on the threads of the common ForkJoinPool
+	 */
+	public static <T> void parallelSort(T[] array, Comparator<? super T> comparator) {
+		parallelSort(array, comparator, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Sort the array in place according to comparator using the quicksort algorithm
+	 * on the threads of pool
+	 * Complexity: O(n.log(n)) work, O(n) time on enough processors
+	 * (the first partition is sequential)
+	 */
+	public static <T> void parallelSort(T[] array, Comparator<? super T> comparator, ForkJoinPool pool) {
+		if ( array.length <= PARALLEL_CUTOFF )
+			sort(array, comparator);
+		else
+			pool.invoke(new SortTask<>(array, 0, array.length-1, depthLimit(array.length), comparator));
+	}
+
+	/**
+	 * Task which sorts the portion array[lo,hi]: the two parts of
+	 * each partition are sorted by two new tasks, and a small portion
+	 * is sorted by the sequential algorithm.
+	 */
+	private static final class SortTask<T> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final T[] array;
+		private final int lo;
+		private final int hi;
+		private final int depth; // the number of partitions allowed before heapsort
+		private final Comparator<? super T> comparator;
+
+		SortTask(T[] array, int lo, int hi, int depth, Comparator<? super T> comparator) {
+			this.array = array;
+			this.lo = lo;
+			this.hi = hi;
+			this.depth = depth;
+			this.comparator = comparator;
+		}
+
+		@Override
+		protected void compute() {
+			if ( hi - lo + 1 <= PARALLEL_CUTOFF || depth == 0 ) {
+				sort(array, lo, hi, depth, comparator);
+				return;
+			}
+			long bounds = partition(array, lo, hi, comparator);
+			invokeAll(new SortTask<>(array, lo, lessThan(bounds)-1, depth-1, comparator),
+					new SortTask<>(array, greaterThan(bounds)+1, hi, depth-1, comparator));
+		}
+	}
+
+	/**
+	 * Return the number of partitions allowed before heapsort: 2.log2(n)
+	 */
+	static int depthLimit(int n) {
+		return 2 * (31 - Integer.numberOfLeadingZeros(Math.max(n, 1)));
 	}
 
 	/**
-	 * Sort the portion array[lo,hi] in place using the quicksort algorithm
-	 */	
-	private static <T extends Comparable<T>> void sort(T[] array, int lo, int hi) {
+	 * Sort the portion array[lo,hi] in place using the quicksort algorithm,
+	 * with at most depth partitions before switching to heapsort
+	 */
+	static <T> void sort(T[] array, int lo, int hi, int depth, Comparator<? super T> comparator) {
+		while ( hi - lo + 1 > CUTOFF ) {
+			if ( depth-- == 0 ) {
+				heapSort(array, lo, hi, comparator);
+				return;
+			}
+			long bounds = partition(array, lo, hi, comparator);
+			int lt = lessThan(bounds);
+			int gt = greaterThan(bounds);
+			// recurse on the smaller part, loop on the greater one
+			if ( lt - lo < hi - gt ) {
+				sort(array, lo, lt-1, depth, comparator);
+				lo = gt + 1;
+			} else {
+				sort(array, gt+1, hi, depth, comparator);
+				hi = lt - 1;
+			}
+		}
+		insertion(array, lo, hi, comparator);
+	}
 
+	/**
+	 * Partition the portion array[lo,hi] in three parts around the median of three:
+	 * array[lo,lt-1] < pivot, array[lt,gt] == pivot, array[gt+1,hi] > pivot
+	 * and return lt and gt, packed in a long (see lessThan and greaterThan)
+	 * Each partition is recorded by Trace to help the student to understand the algorithm
+	 */
+	private static <T> long partition(T[] array, int lo, int hi, Comparator<? super T> comparator) {
+		if ( Trace.ENABLED )
+			Trace.record(Trace.Kind.PARTITION, lo, hi);
+		swap(array, lo, median(array, lo, lo + (hi - lo)/2, hi, comparator));
+		T pivot = array[lo];
+		int lt = lo;
+		int gt = hi;
+		int i = lo + 1;
+		while ( i <= gt ) {
+			int cmp = comparator.compare(array[i], pivot);
+			if ( cmp < 0 )
+				swap(array, lt++, i++);
+			else if ( cmp > 0 )
+				swap(array, i, gt--);
+			else
+				i++;
+		}
+		return (long) lt << 32 | gt;
 	}
 
 	/**
-	 * Partition the portion array[lo,hi] and return the index of the pivot
-	 * We use a logger to trace the execution of the algorithm and help the student to understand the algorithm
+	 * Return lt, the first index of the elements equal to the pivot, from the result of partition
 	 */
-	private static <T extends Comparable<T>> int partition(T[] array, int lo, int hi) {
-		return 0;
+	private static int lessThan(long bounds) {
+		return (int) (bounds >>> 32);
+	}
+
+	/**
+	 * Return gt, the last index of the elements equal to the pivot, from the result of partition
+	 */
+	private static int greaterThan(long bounds) {
+		return (int) bounds;
 	}
 
 	/**
 	 * Return the index of the median of { array[lo], array[mid], array[hi] }
 	 *
 	 */
-	private static <T extends Comparable<T>> int median(T[] array, int lo, int mid, int hi) {
-		return 0;
+	private static <T> int median(T[] array, int lo, int mid, int hi, Comparator<? super T> comparator) {
+		if ( comparator.compare(array[lo], array[mid]) < 0 ) {
+			if ( comparator.compare(array[mid], array[hi]) < 0 )
+				return mid;
+			return comparator.compare(array[lo], array[hi]) < 0 ? hi : lo;
+		}
+		if ( comparator.compare(array[lo], array[hi]) < 0 )
+			return lo;
+		return comparator.compare(array[mid], array[hi]) < 0 ? hi : mid;
 	}
 
-	
+
 	/**
 	 * Sort array[lo, hi] in place using the insertion sort algorithm
 	 */
-	private static <T extends Comparable<T>> void insertion(T[] array, int lo, int hi) {
+	private static <T> void insertion(T[] array, int lo, int hi, Comparator<? super T> comparator) {
+		for (int i = lo + 1; i <= hi; i++ ) {
+			T e = array[i];
+			int j = i;
+			while ( j > lo && comparator.compare(array[j-1], e) > 0 ) {
+				array[j] = array[j-1]; //move the greater element right
+				j--;
+			}
+			array[j] = e;
+		}
+	}
+
+	/**
+	 * Sort array[lo, hi] in place using the heapsort algorithm:
+	 * the portion is a max heap whose node number n is array[lo + n]
+	 * Complexity: O(n.log(n)) where n = hi - lo + 1
+	 */
+	private static <T> void heapSort(T[] array, int lo, int hi, Comparator<? super T> comparator) {
+		int n = hi - lo + 1;
+		for (int i = n/2 - 1; i >= 0; i-- )
+			percolateDown(array, lo, i, n, comparator);
+		for (int size = n - 1; size > 0; size-- ) {
+			swap(array, lo, lo + size); //the greatest element goes to the end
+			percolateDown(array, lo, 0, size, comparator);
+		}
 	}
-	
+
+	/**
+	 * Percolate down the node number i of the heap array[lo, lo + size - 1]
+	 * Complexity: O(log(size))
+	 */
+	private static <T> void percolateDown(T[] array, int lo, int i, int size, Comparator<? super T> comparator) {
+		T e = array[lo + i];
+		int child = 2*i + 1;
+		while ( child < size ) {
+			if ( child + 1 < size && comparator.compare(array[lo + child + 1], array[lo + child]) > 0 )
+				child++;
+			if ( comparator.compare(array[lo + child], e) <= 0 )
+				break;
+			array[lo + i] = array[lo + child]; //move the child up
+			i = child;
+			child = 2*i + 1;
+		}
+		array[lo + i] = e;
+	}
+
 	/**
 	 * Swap array[i] and array[j]
 	 */
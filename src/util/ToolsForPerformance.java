@@ -94,8 +94,9 @@ public class ToolsForPerformance {
             runnable.run();
             long localEnd = System.nanoTime();
             durations[i] = localEnd - localStart;
+            if (Trace.ENABLED)
+                Trace.record(Trace.Kind.MEASURE, i, durations[i]);
         }
-        LOGGER.log(Level.INFO, () -> "durations : " + Arrays.toString(durations));
         //long endTime = System.nanoTime();
         //double average = Arrays.stream(durations).average().getAsDouble();
         long median = Arrays.stream(durations).sorted().skip(durations.length / 2).findFirst().getAsLong();
@@ -106,7 +107,6 @@ public class ToolsForPerformance {
                 Arrays.stream(durations).average().getAsDouble(),
                 standardDeviation,
                 median);
-        LOGGER.log(Level.INFO, () -> runnable + " --> Measures :" + values);
         return values;
     }
 
@@ -126,8 +126,9 @@ public class ToolsForPerformance {
             consumer.accept(arrayCopy);
             long localEnd = System.nanoTime();
             durations[i] = localEnd - localStart;
+            if (Trace.ENABLED)
+                Trace.record(Trace.Kind.MEASURE, i, durations[i]);
         }
-        LOGGER.log(Level.INFO, () -> "durations : " + Arrays.toString(durations));
         //long endTime = System.nanoTime();
         //double average = Arrays.stream(durations).average().getAsDouble();
         long median = Arrays.stream(durations).sorted().skip(durations.length / 2).findFirst().getAsLong();
@@ -138,7 +139,6 @@ public class ToolsForPerformance {
                 Arrays.stream(durations).average().getAsDouble(),
                 standardDeviation,
                 median);
-        LOGGER.log(Level.INFO, () -> consumer + " --> Measures :" + values);
         return values;
     }
 
@@ -262,11 +262,8 @@ public class ToolsForPerformance {
 
     private static <T> List<IdentifiedMeasure<Measures>> evaluateMultiplePerformances(Map<String, Consumer<T[]>> methods, T[] array, int times) {
         return methods.entrySet().stream()
-                .peek(e -> LOGGER.log(Level.INFO, () -> "===========> Method  evaluation start : " + e.getKey()))
                 .map(m -> new IdentifiedMeasure<>( m.getKey(),
                         evaluateTimes(m.getValue(), array, times)))
-                .toList()
-                .stream().peek(e -> LOGGER.log(Level.INFO, () -> "===========| Method  evaluation end : " + e.identifier()))
                 .toList();
 
     }
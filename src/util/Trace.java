@@ -0,0 +1,65 @@
+package util;
+
+import java.util.List;
+
+/**
+ * Tracing of the hot paths of the heaps and of the sorts.
+ * Tracing is off unless the JVM is started with -Dasdpoo.trace=true;
+ * the number of kept events is set by -Dasdpoo.trace.capacity (65536 by default).
+ * A hot path records an event only under the switch:
+ * <pre>
+ *     if ( Trace.ENABLED )
+ *         Trace.record(Trace.Kind.SIFT, n, size);
+ * </pre>
+ * ENABLED is a static final field: the JIT compiler treats it as a constant,
+ * so when tracing is off the test and the call are removed from the
+ * compiled code, and the arguments are never computed.
+ * When tracing is on, the events go to a lock-free TraceBuffer
+ * instead of java.util.logging.
+ */
+public final class Trace {
+
+    /**
+     * The kinds of events, with the meaning of their two values.
+     */
+    public enum Kind {
+        SIFT,      // node percolated down, size of the heap
+        SWAP,      // the two swapped indexes
+        PARTITION, // the bounds of the partitioned portion
+        MERGE,     // the number of merged sources, the number of merged elements
+        FIND,      // the node where the search starts, size of the heap
+        MEASURE    // the number of the run, its duration in nanoseconds
+    }
+
+    public static final boolean ENABLED = Boolean.getBoolean("asdpoo.trace");
+
+    private static final TraceBuffer BUFFER =
+            ENABLED ? new TraceBuffer(Integer.getInteger("asdpoo.trace.capacity", 1 << 16)) : null;
+
+    private Trace() {
+    }
+
+    /**
+     * Record an event.
+     * Only call it under the switch: if ( Trace.ENABLED ) ...
+     */
+    public static void record(Kind kind, long first, long second) {
+        BUFFER.record(kind, first, second);
+    }
+
+    /**
+     * Return the recorded events kept by the buffer, the oldest first,
+     * or no events if tracing is off.
+     */
+    public static List<TraceBuffer.Event> events() {
+        return ENABLED ? BUFFER.events() : List.of();
+    }
+
+    /**
+     * Forget the events recorded so far.
+     */
+    public static void clear() {
+        if (ENABLED)
+            BUFFER.clear();
+    }
+}
@@ -0,0 +1,119 @@
+package util;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free ring buffer of trace events.
+ * A writer takes the next sequence number with a single atomic increment
+ * and writes its event in the slot of this number, overwriting the event
+ * recorded capacity events before: recording never blocks nor allocates.
+ * Each slot is published with the sequence number of its event, so a reader
+ * skips the events being written or overwritten during the read.
+ * An event may be lost when the writers lap the whole buffer while writing it.
+ */
+public final class TraceBuffer {
+
+    /**
+     * An event: its sequence number, its kind and two values
+     * whose meaning depends on the kind (see Trace.Kind).
+     */
+    public record Event(long sequence, Trace.Kind kind, long first, long second) {
+        public String toString() {
+            return sequence + " " + kind + " " + first + " " + second;
+        }
+    }
+
+    private static final Trace.Kind[] KINDS = Trace.Kind.values();
+    private static final long WRITING = -1;
+
+    private final int mask;
+    private final int[] kinds;
+    private final long[] firsts;
+    private final long[] seconds;
+    // the sequence number + 1 of the event of each slot, WRITING during a write
+    private final AtomicLongArray published;
+    private final AtomicLong cursor = new AtomicLong(); // the next sequence number
+    private volatile long floor = 0; // the first sequence number not cleared
+
+    /**
+     * Build a buffer which keeps the last events,
+     * at least capacity of them (capacity is rounded up to a power of 2).
+     */
+    public TraceBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity must be in [1, 2^30]");
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity)
+            length <<= 1;
+        mask = length - 1;
+        kinds = new int[length];
+        firsts = new long[length];
+        seconds = new long[length];
+        published = new AtomicLongArray(length);
+    }
+
+    /**
+     * Return the number of events kept by the buffer.
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Record an event.
+     * Complexity: THETA(1), one atomic increment
+     */
+    public void record(Trace.Kind kind, long first, long second) {
+        long sequence = cursor.getAndIncrement();
+        int slot = (int) (sequence & mask);
+        published.setOpaque(slot, WRITING);
+        VarHandle.storeStoreFence();
+        kinds[slot] = kind.ordinal();
+        firsts[slot] = first;
+        seconds[slot] = second;
+        published.setRelease(slot, sequence + 1);
+    }
+
+    /**
+     * Return the number of events recorded since the last clear,
+     * including the overwritten ones.
+     */
+    public long recorded() {
+        long cleared = floor; // read before the cursor, as in events
+        return cursor.get() - cleared;
+    }
+
+    /**
+     * Return the events kept by the buffer, the oldest first.
+     * Complexity: O(capacity)
+     */
+    public List<Event> events() {
+        long cleared = floor; // read before end: a concurrent clear only moves it up to end
+        long end = cursor.get();
+        long start = Math.min(Math.max(cleared, end - capacity()), end);
+        List<Event> events = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask);
+            if (published.getAcquire(slot) != sequence + 1)
+                continue; // being written, or already overwritten
+            Trace.Kind kind = KINDS[kinds[slot]];
+            long first = firsts[slot];
+            long second = seconds[slot];
+            VarHandle.loadLoadFence();
+            if (published.getOpaque(slot) == sequence + 1)
+                events.add(new Event(sequence, kind, first, second));
+        }
+        return events;
+    }
+
+    /**
+     * Forget the events recorded so far.
+     */
+    public void clear() {
+        floor = cursor.get();
+    }
+}
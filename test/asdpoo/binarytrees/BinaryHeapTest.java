@@ -5,6 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.StreamSupport;
 import java.util.logging.Logger;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -146,6 +150,309 @@ class BinaryHeapTest {
         assertTrue(heapWithComparator.isEmpty());
     }
 
-}
+    @Test
+    void testGrowableHeap() throws FullHeapException, EmptyHeapException {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>(1, Comparator.naturalOrder(), true);
+        for (int i = 0; i < 100; i++)
+            heap.add(i);
+        assertEquals(100, heap.size());
+        assertEquals(128, heap.capacity());
+        heap.trimToSize();
+        assertEquals(100, heap.capacity());
+        for (int i = 99; i >= 0; i--)
+            assertEquals(Integer.valueOf(i), heap.deleteExtreme());
+        heap.trimToSize();
+        assertEquals(0, heap.capacity());
+        heap.add(42);
+        assertEquals(42, heap.extreme());
+    }
+
+    @Test
+    void testGrowableHeapWithCap() throws FullHeapException {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>(2, Comparator.naturalOrder(), 5);
+        for (int i = 0; i < 5; i++)
+            heap.add(i);
+        assertEquals(5, heap.capacity());
+        assertThrows(FullHeapException.class, () -> heap.add(5));
+        assertThrows(FullHeapException.class, () -> heap.ensureCapacity(6));
+        assertThrows(IllegalArgumentException.class, () -> new BinaryHeap<Integer>(4, Comparator.naturalOrder(), 3));
+    }
+
+    @Test
+    void testFixedHeapIsFull() throws FullHeapException {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>(1);
+        assertFalse(heap.isGrowable());
+        heap.add(1);
+        assertThrows(FullHeapException.class, () -> heap.add(2));
+        heap.ensureCapacity(2);
+        heap.add(2);
+        assertEquals(2, heap.size());
+    }
+
+    private void assertIsMaxHeap(BinaryHeap<Integer> heap) {
+        Object[] array = heap.getArray();
+        for (int i = 1; i < heap.size(); i++)
+            assertTrue((Integer) array[(i - 1) / 2] >= (Integer) array[i], "heap property broken at " + i);
+    }
+
+    @Test
+    void testParallelBuildHeap() throws EmptyHeapException {
+        Random random = new Random(42);
+        Integer[] array = new Integer[3 * BinaryHeap.PARALLEL_BUILD_THRESHOLD + 17];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt(1000);
+        Integer[] sorted = array.clone();
+        Arrays.sort(sorted);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BinaryHeap<Integer> heap = new BinaryHeap<Integer>(array, Comparator.naturalOrder(), pool);
+            assertEquals(sorted.length, heap.size());
+            assertIsMaxHeap(heap);
+            for (int i = sorted.length - 1; i >= 0; i--)
+                assertEquals(sorted[i], heap.deleteExtreme());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testAddAll() throws FullHeapException, EmptyHeapException {
+        java.util.Random random = new java.util.Random(42);
+        // a small batch, a medium batch, then a batch larger than the heap
+        for (int[] sizes : new int[][]{{1000, 5}, {1000, 300}, {100, 1000}, {0, 10}}) {
+            BinaryHeap<Integer> heap = new BinaryHeap<Integer>(sizes[0], Comparator.naturalOrder(), true);
+            for (int i = 0; i < sizes[0]; i++)
+                heap.add(random.nextInt(500));
+            Integer[] batch = new Integer[sizes[1]];
+            for (int i = 0; i < batch.length; i++)
+                batch[i] = random.nextInt(500);
+            heap.addAll(batch);
+            assertEquals(sizes[0] + sizes[1], heap.size());
+            assertIsMaxHeap(heap);
+            heap.addAll(java.util.List.of(1000, -1, 250));
+            assertIsMaxHeap(heap);
+            assertEquals(1000, heap.deleteExtreme());
+        }
+    }
+
+    @Test
+    void testAddAllOnFullHeap() throws FullHeapException {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>(4);
+        heap.add(1);
+        assertThrows(FullHeapException.class, () -> heap.addAll(new Integer[]{2, 3, 4, 5}));
+        assertEquals(1, heap.size());
+        heap.addAll(new Integer[]{2, 3, 4});
+        assertArrayEquals(new Integer[]{4, 2, 3, 1}, heap.getArray());
+    }
 
+    @Test
+    void testReplaceExtreme() throws EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> binaryHeap.replaceExtreme(1));
+        initHeap();
+        assertEquals(9, binaryHeap.replaceExtreme(4));
+        assertEquals(5, binaryHeap.size());
+        assertEquals(7, binaryHeap.deleteExtreme());
+        assertEquals(5, binaryHeap.deleteExtreme());
+        assertEquals(4, binaryHeap.deleteExtreme());
+    }
 
+    @Test
+    void testDrainTo() {
+        Integer[] dest = new Integer[4];
+        assertEquals(0, binaryHeap.drainTo(dest, 4));
+        initHeap();
+        assertEquals(4, binaryHeap.drainTo(dest, 10));
+        assertArrayEquals(new Integer[]{9, 7, 5, 3}, dest);
+        assertEquals(1, binaryHeap.size());
+        testHeapEndIsFree(binaryHeap);
+        assertEquals(1, binaryHeap.drainTo(dest, 3));
+        assertEquals(1, dest[0]);
+        assertTrue(binaryHeap.isEmpty());
+    }
+
+    @Test
+    void testSpliterator() {
+        assertEquals(0, binaryHeap.spliterator().estimateSize());
+        initHeap();
+        Spliterator<Integer> spliterator = binaryHeap.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+        assertEquals(5, spliterator.getExactSizeIfKnown());
+        Spliterator<Integer> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(5, prefix.estimateSize() + spliterator.estimateSize());
+        assertEquals(25, StreamSupport.stream(binaryHeap.spliterator(), true).mapToInt(Integer::intValue).sum());
+        assertEquals(5, binaryHeap.size());
+    }
+
+    @Test
+    void testParallelSumOfLargeHeap() throws FullHeapException {
+        binaryHeap = new BinaryHeap<Integer>(16, Comparator.naturalOrder(), true);
+        long expected = 0;
+        for (int i = 0; i < 100_000; i++) {
+            binaryHeap.add(i % 1000);
+            expected += i % 1000;
+        }
+        assertEquals(expected, StreamSupport.stream(binaryHeap.spliterator(), true).mapToLong(Integer::longValue).sum());
+    }
+
+    @Test
+    void testIndexedHeap() throws FullHeapException, EmptyHeapException {
+        initHeap();
+        assertTrue(binaryHeap.contains(7));
+        assertFalse(binaryHeap.contains(4));
+        assertEquals(1, binaryHeap.count(7));
+        binaryHeap = new BinaryHeap<Integer>(4, Comparator.naturalOrder(), true);
+        binaryHeap.enableIndex();
+        assertTrue(binaryHeap.isIndexed());
+        binaryHeap.addAll(new Integer[]{3, 7, 5, 1, 9, 7, 7});
+        assertEquals(3, binaryHeap.count(7));
+        assertTrue(binaryHeap.contains(1));
+        assertFalse(binaryHeap.contains(4));
+        assertFalse(binaryHeap.isLeaf(9));
+        assertTrue(binaryHeap.isLeaf(1));
+        binaryHeap.deleteAll(7);
+        assertEquals(0, binaryHeap.count(7));
+        assertFalse(binaryHeap.contains(7));
+        assertEquals(4, binaryHeap.size());
+        assertEquals(9, binaryHeap.replaceExtreme(2));
+        assertFalse(binaryHeap.contains(9));
+        assertEquals(5, binaryHeap.deleteExtreme());
+        assertEquals(3, binaryHeap.deleteExtreme());
+        assertEquals(2, binaryHeap.deleteExtreme());
+        assertEquals(1, binaryHeap.deleteExtreme());
+        assertFalse(binaryHeap.contains(1));
+    }
+
+    @Test
+    void testIndexedHeapRandomOperations() throws FullHeapException, EmptyHeapException {
+        Random random = new Random(42);
+        BinaryHeap<Integer> indexed = new BinaryHeap<Integer>(8, Comparator.naturalOrder(), true);
+        indexed.enableIndex();
+        BinaryHeap<Integer> plain = new BinaryHeap<Integer>(8, Comparator.naturalOrder(), true);
+        for (int i = 0; i < 5000; i++) {
+            int e = random.nextInt(50);
+            switch (random.nextInt(5)) {
+                case 0, 1 -> {
+                    indexed.add(e);
+                    plain.add(e);
+                }
+                case 2 -> {
+                    indexed.deleteAll(e);
+                    plain.deleteAll(e);
+                }
+                case 3 -> {
+                    if (!plain.isEmpty())
+                        assertEquals(plain.deleteExtreme(), indexed.deleteExtreme());
+                }
+                default -> {
+                    if (!plain.isEmpty())
+                        assertEquals(plain.replaceExtreme(e), indexed.replaceExtreme(e));
+                }
+            }
+            assertEquals(plain.size(), indexed.size());
+            assertEquals(plain.count(e), indexed.count(e));
+            assertEquals(plain.contains(e), indexed.contains(e));
+        }
+        while (!plain.isEmpty())
+            assertEquals(plain.deleteExtreme(), indexed.deleteExtreme());
+    }
+
+    @Test
+    void testLazyDeletion() throws FullHeapException, EmptyHeapException {
+        binaryHeap = new BinaryHeap<Integer>(10, Comparator.naturalOrder());
+        binaryHeap.enableLazyDeletion(0.5);
+        assertTrue(binaryHeap.isLazy());
+        assertTrue(binaryHeap.isIndexed()); // a lazy delete finds its element in THETA(1)
+        binaryHeap.addAll(new Integer[]{3, 7, 5, 1, 9, 7});
+        binaryHeap.delete(7);
+        assertEquals(5, binaryHeap.size());
+        assertEquals(1, binaryHeap.deadCount());
+        assertEquals(1, binaryHeap.count(7));
+        binaryHeap.delete(9); // the root is deleted at once
+        assertEquals(1, binaryHeap.deadCount());
+        assertEquals(4, binaryHeap.size());
+        assertEquals(7, binaryHeap.extreme());
+        binaryHeap.delete(1); // the tombstone of 7 is purged from the root first
+        binaryHeap.delete(3);
+        assertEquals(2, binaryHeap.deadCount());
+        assertEquals(2, binaryHeap.size());
+        binaryHeap.add(6);
+        binaryHeap.delete(6); // 3 tombstones for 5 nodes: compaction
+        assertEquals(0, binaryHeap.deadCount());
+        assertEquals(2, binaryHeap.size());
+        assertEquals(7, binaryHeap.deleteExtreme());
+        assertEquals(5, binaryHeap.deleteExtreme());
+        assertTrue(binaryHeap.isEmpty());
+        assertThrows(EmptyHeapException.class, () -> binaryHeap.extreme());
+        assertThrows(IllegalArgumentException.class, () -> binaryHeap.enableLazyDeletion(0));
+    }
+
+    @Test
+    void testLazyDeletionOfAbsentElement() throws FullHeapException, EmptyHeapException {
+        BinaryHeap<Integer> heap = new BinaryHeap<Integer>(4, Comparator.naturalOrder(), true);
+        heap.enableLazyDeletion(1.0);
+        heap.add(5);
+        heap.add(3);
+        heap.delete(42);
+        assertEquals(2, heap.size());
+        heap.compact();
+        heap.add(42);
+        heap.delete(3);
+        assertEquals(2, heap.size());
+        assertEquals(42, heap.extreme());
+        assertEquals(42, heap.deleteExtreme());
+        assertEquals(5, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testLazyDeletionMakesRoom() throws FullHeapException, EmptyHeapException {
+        binaryHeap = new BinaryHeap<Integer>(4, Comparator.naturalOrder());
+        binaryHeap.enableLazyDeletion(1);
+        binaryHeap.addAll(new Integer[]{4, 3, 2, 1});
+        binaryHeap.delete(2);
+        assertEquals(1, binaryHeap.deadCount());
+        binaryHeap.add(5); // compacts the full heap
+        assertEquals(0, binaryHeap.deadCount());
+        Integer[] dest = new Integer[4];
+        assertEquals(4, binaryHeap.drainTo(dest, 4));
+        assertArrayEquals(new Integer[]{5, 4, 3, 1}, dest);
+    }
+
+    @Test
+    void testLazyDeletionRandomOperations() throws FullHeapException, EmptyHeapException {
+        for (boolean indexedFirst : new boolean[]{false, true}) {
+            Random random = new Random(42);
+            BinaryHeap<Integer> lazy = new BinaryHeap<Integer>(8, Comparator.naturalOrder(), true);
+            if (indexedFirst)
+                lazy.enableIndex();
+            lazy.enableLazyDeletion(0.25);
+            PairingHeap<Integer> reference = new PairingHeap<>();
+            java.util.List<Integer> elements = new java.util.ArrayList<>();
+            for (int i = 0; i < 5000; i++) {
+                int operation = random.nextInt(4);
+                if (operation <= 1 || elements.isEmpty()) {
+                    int e = random.nextInt(200);
+                    lazy.add(e);
+                    reference.add(e);
+                    elements.add(e);
+                } else if (operation == 2) {
+                    Integer e = elements.remove(random.nextInt(elements.size()));
+                    lazy.delete(e);
+                    reference.delete(e);
+                } else {
+                    Integer e = reference.deleteExtreme();
+                    assertEquals(e, lazy.deleteExtreme());
+                    elements.remove(e);
+                }
+                assertEquals(reference.size(), lazy.size());
+            }
+            assertEquals(reference.size(), StreamSupport.stream(lazy.spliterator(), false).count());
+            assertEquals(0, lazy.deadCount());
+            while (!reference.isEmpty())
+                assertEquals(reference.deleteExtreme(), lazy.deleteExtreme());
+            assertTrue(lazy.isEmpty());
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountingBinaryHeapTest {
+
+    CountingBinaryHeap<Integer> heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new CountingBinaryHeap<Integer>(4, Comparator.naturalOrder());
+    }
+
+    @Test
+    void testDuplicates() throws FullHeapException, EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> heap.deleteExtreme());
+        for (int e : new int[]{5, 9, 5, 1, 9, 9, 5})
+            heap.add(e);
+        assertEquals(7, heap.size());
+        assertEquals(3, heap.distinctSize());
+        assertEquals(3, heap.count(9));
+        assertEquals(0, heap.count(4));
+        assertTrue(heap.contains(1));
+        assertEquals(9, heap.deleteExtreme());
+        assertEquals(2, heap.count(9));
+        assertEquals(3, heap.distinctSize());
+        assertEquals(9, heap.deleteExtreme());
+        assertEquals(9, heap.deleteExtreme());
+        assertFalse(heap.contains(9));
+        assertEquals(2, heap.distinctSize());
+        assertEquals(5, heap.extreme());
+        Object[] array = heap.getArray();
+        assertNull(array[2]);
+    }
+
+    @Test
+    void testCapacityCountsDistinctElements() throws FullHeapException {
+        for (int i = 0; i < 1000; i++)
+            heap.add(i % 4);
+        assertEquals(1000, heap.size());
+        assertThrows(FullHeapException.class, () -> heap.add(4));
+        heap.add(3, 1000);
+        assertEquals(1250, heap.count(3));
+        assertThrows(IllegalArgumentException.class, () -> heap.add(3, 0));
+    }
+
+    @Test
+    void testDeleteAndDeleteAll() throws FullHeapException, EmptyHeapException {
+        heap.add(7, 3);
+        heap.add(2, 2);
+        heap.add(4);
+        heap.delete(7);
+        assertEquals(2, heap.count(7));
+        heap.deleteAll(7);
+        assertFalse(heap.contains(7));
+        heap.delete(8);
+        assertEquals(3, heap.size());
+        assertEquals(4, heap.deleteExtreme());
+        assertEquals(2, heap.deleteExtreme());
+        assertEquals(2, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testRandomOperations() throws FullHeapException, EmptyHeapException {
+        Random random = new Random(42);
+        CountingBinaryHeap<Integer> counting = new CountingBinaryHeap<Integer>(20, Comparator.reverseOrder());
+        BinaryHeap<Integer> reference = new BinaryHeap<Integer>(16, Comparator.reverseOrder(), true);
+        for (int i = 0; i < 20_000; i++) {
+            int e = random.nextInt(20);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    counting.add(e);
+                    reference.add(e);
+                }
+                case 2 -> {
+                    counting.deleteAll(e);
+                    reference.deleteAll(e);
+                }
+                default -> {
+                    if (!reference.isEmpty())
+                        assertEquals(reference.deleteExtreme(), counting.deleteExtreme());
+                }
+            }
+            assertEquals(reference.size(), counting.size());
+        }
+        while (!reference.isEmpty())
+            assertEquals(reference.deleteExtreme(), counting.deleteExtreme());
+    }
+}
@@ -0,0 +1,61 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaryHeapTest {
+
+    @Test
+    void testConstructors() {
+        assertThrows(IllegalArgumentException.class, () -> new DaryHeap<Integer>(1, 10));
+        DaryHeap<Integer> heap = new DaryHeap<>(4, 10);
+        assertEquals(4, heap.arity());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testFourAryLayout() throws FullHeapException, EmptyHeapException {
+        DaryHeap<Integer> heap = new DaryHeap<>(4, 6);
+        for (int i = 1; i <= 6; i++)
+            heap.add(i);
+        // the root has 4 children, the last one has 1 child
+        assertArrayEquals(new Integer[]{6, 5, 2, 3, 4, 1}, heap.getArray());
+        assertTrue(heap.isLeaf(2));
+        assertFalse(heap.isLeaf(5));
+        assertThrows(FullHeapException.class, () -> heap.add(7));
+        assertEquals(6, heap.extreme());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 3, 4, 8})
+    void testDeleteExtreme(int arity) throws EmptyHeapException {
+        Integer[] array = {12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6, 5};
+        DaryHeap<Integer> heap = new DaryHeap<>(arity, array, Comparator.reverseOrder());
+        int previous = heap.deleteExtreme();
+        while (!heap.isEmpty()) {
+            int current = heap.deleteExtreme();
+            assertTrue(previous <= current);
+            previous = current;
+        }
+        assertNull(heap.getArray()[0]);
+        assertThrows(EmptyHeapException.class, heap::extreme);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {2, 4})
+    void testDelete(int arity) throws EmptyHeapException {
+        DaryHeap<Integer> heap = new DaryHeap<>(arity, new Integer[]{3, 7, 5, 1, 9, 0, 9, 7, 9}, Comparator.naturalOrder());
+        heap.delete(7);
+        assertEquals(8, heap.size());
+        heap.deleteAll(9);
+        assertEquals(5, heap.size());
+        assertEquals(7, heap.deleteExtreme());
+        assertEquals(5, heap.deleteExtreme());
+        assertEquals(3, heap.deleteExtreme());
+    }
+}
@@ -0,0 +1,47 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DoubleBinaryHeapTest {
+
+    @Test
+    void testDeleteExtreme() throws EmptyHeapException {
+        DoubleBinaryHeap heap = new DoubleBinaryHeap(new double[]{3.5, -1.0, 7.25, 0.0, 2.0});
+        assertEquals(7.25, heap.deleteExtreme());
+        assertEquals(3.5, heap.deleteExtreme());
+        assertEquals(2.0, heap.deleteExtreme());
+        assertEquals(0.0, heap.deleteExtreme());
+        assertEquals(-1.0, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testMinOrder() throws FullHeapException, EmptyHeapException {
+        DoubleBinaryHeap heap = new DoubleBinaryHeap(5, HeapOrder.MIN);
+        heap.add(0.5);
+        heap.add(-0.5);
+        heap.add(Double.NaN);
+        heap.add(Double.NEGATIVE_INFINITY);
+        assertEquals(Double.NEGATIVE_INFINITY, heap.deleteExtreme());
+        assertEquals(-0.5, heap.deleteExtreme());
+        assertEquals(0.5, heap.deleteExtreme());
+        // NaN is the greatest value with Double.compare
+        assertTrue(Double.isNaN(heap.deleteExtreme()));
+    }
+
+    @Test
+    void testDeleteAndIsLeaf() throws EmptyHeapException {
+        DoubleBinaryHeap heap = new DoubleBinaryHeap(new double[]{1.0, 2.0, 3.0, 2.0, 5.0}, HeapOrder.MIN);
+        assertTrue(heap.isLeaf(5.0));
+        assertFalse(heap.isLeaf(1.0));
+        heap.delete(2.0);
+        assertEquals(4, heap.size());
+        heap.deleteAll(3.0);
+        assertEquals(3, heap.size());
+        assertEquals(1.0, heap.deleteExtreme());
+        assertEquals(2.0, heap.deleteExtreme());
+        assertEquals(5.0, heap.deleteExtreme());
+    }
+}
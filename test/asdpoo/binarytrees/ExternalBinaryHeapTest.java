@@ -0,0 +1,168 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalBinaryHeapTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Integers whose writing fails, as on a full disk,
+     * once failAfter of them have been written.
+     */
+    private static final class FailingCodec implements HeapSnapshot.Codec<Integer> {
+        long written = 0;
+        long failAfter = Long.MAX_VALUE;
+
+        public int width(Integer e) {
+            return Integer.BYTES;
+        }
+
+        public void write(Integer e, ByteBuffer dst) {
+            if (written++ >= failAfter)
+                throw new UncheckedIOException(new IOException("no space left on device"));
+            dst.putInt(e);
+        }
+
+        public Integer read(ByteBuffer src) {
+            return src.getInt();
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testSpillAndDrain() throws IOException, EmptyHeapException {
+        try (ExternalBinaryHeap<Integer> heap = new ExternalBinaryHeap<Integer>(4, Comparator.naturalOrder(),
+                HeapSnapshot.INTEGER_CODEC, tempDir)) {
+            assertThrows(EmptyHeapException.class, () -> heap.deleteExtreme());
+            for (int e : new int[]{5, 1, 9, 3, 7, 2, 8, 6, 4, 0})
+                heap.add(e);
+            assertEquals(10, heap.size());
+            assertEquals(2, heap.runCount());
+            assertEquals(2, countFiles());
+            for (int e = 9; e >= 0; e--) {
+                assertEquals(e, heap.extreme());
+                assertEquals(e, heap.deleteExtreme());
+            }
+            assertTrue(heap.isEmpty());
+            assertEquals(0, heap.runCount());
+            assertEquals(0, countFiles());
+        }
+    }
+
+    @Test
+    void testManyRunsAreMerged() throws IOException, EmptyHeapException {
+        Random random = new Random(42);
+        BinaryHeap<Integer> reference = new BinaryHeap<Integer>(16, Comparator.reverseOrder(), true);
+        try (ExternalBinaryHeap<Integer> heap = new ExternalBinaryHeap<Integer>(100, Comparator.reverseOrder(),
+                HeapSnapshot.INTEGER_CODEC, tempDir)) {
+            for (int i = 0; i < 100_000; i++) {
+                if (random.nextInt(4) > 0 || reference.isEmpty()) {
+                    int e = random.nextInt(1_000_000);
+                    heap.add(e);
+                    reference.add(e);
+                } else
+                    assertEquals(reference.deleteExtreme(), heap.deleteExtreme());
+                assertTrue(heap.runCount() < ExternalBinaryHeap.MAX_RUNS);
+            }
+            assertEquals(reference.size(), heap.size());
+            while (!reference.isEmpty())
+                assertEquals(reference.deleteExtreme(), heap.deleteExtreme());
+            assertTrue(heap.isEmpty());
+        } catch (FullHeapException impossible) {
+            fail(impossible);
+        }
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    void testStringsLargerThanTheReadBuffer() throws IOException, EmptyHeapException {
+        String large = "x".repeat(ExternalBinaryHeap.READ_BUFFER_BYTES * 3);
+        try (ExternalBinaryHeap<String> heap = new ExternalBinaryHeap<String>(2, Comparator.naturalOrder(),
+                HeapSnapshot.STRING_CODEC, tempDir)) {
+            heap.add("a");
+            heap.add("b" + large);
+            heap.add("d" + large);
+            heap.add("c");
+            heap.add("é");
+            assertEquals("é", heap.deleteExtreme());
+            assertEquals("d" + large, heap.deleteExtreme());
+            assertEquals("c", heap.deleteExtreme());
+            assertEquals("b" + large, heap.deleteExtreme());
+            assertEquals("a", heap.deleteExtreme());
+        }
+    }
+
+    @Test
+    void testCloseDeletesTheRuns() throws IOException {
+        ExternalBinaryHeap<Long> heap = new ExternalBinaryHeap<Long>(8, Comparator.naturalOrder(),
+                HeapSnapshot.LONG_CODEC, tempDir);
+        for (long e = 0; e < 100; e++)
+            heap.add(e);
+        assertTrue(countFiles() > 0);
+        heap.close();
+        assertEquals(0, countFiles());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testFailedSpillKeepsTheElements() throws IOException, EmptyHeapException {
+        FailingCodec codec = new FailingCodec();
+        try (ExternalBinaryHeap<Integer> heap = new ExternalBinaryHeap<Integer>(4, Comparator.naturalOrder(), codec, tempDir)) {
+            for (int e = 0; e < 4; e++)
+                heap.add(e);
+            codec.failAfter = 2;
+            assertThrows(UncheckedIOException.class, () -> heap.add(4));
+            assertEquals(4, heap.size());
+            assertEquals(0, heap.runCount());
+            assertEquals(0, countFiles());
+            codec.failAfter = Long.MAX_VALUE;
+            heap.add(4);
+            assertEquals(1, heap.runCount());
+            for (int e = 4; e >= 0; e--)
+                assertEquals(e, heap.deleteExtreme());
+        }
+    }
+
+    @Test
+    void testFailedMergeKeepsTheRuns() throws IOException, EmptyHeapException {
+        FailingCodec codec = new FailingCodec();
+        try (ExternalBinaryHeap<Integer> heap = new ExternalBinaryHeap<Integer>(2, Comparator.naturalOrder(), codec, tempDir)) {
+            int n = 2 * (ExternalBinaryHeap.MAX_RUNS - 1) + 2;
+            for (int e = 0; e < n; e++)
+                heap.add(e);
+            assertEquals(ExternalBinaryHeap.MAX_RUNS - 1, heap.runCount());
+            codec.failAfter = codec.written + 2 + 5; // the spill succeeds, the merge fails
+            assertThrows(UncheckedIOException.class, () -> heap.add(n));
+            assertEquals(n, heap.size());
+            assertEquals(ExternalBinaryHeap.MAX_RUNS, heap.runCount());
+            assertEquals(ExternalBinaryHeap.MAX_RUNS, countFiles());
+            codec.failAfter = Long.MAX_VALUE;
+            heap.add(n);
+            heap.add(n + 1);
+            heap.add(n + 2); // the merge is done by this spill
+            assertTrue(heap.runCount() < ExternalBinaryHeap.MAX_RUNS);
+            for (int e = n + 2; e >= 0; e--)
+                assertEquals(e, heap.deleteExtreme());
+        }
+        assertEquals(0, countFiles());
+    }
+}
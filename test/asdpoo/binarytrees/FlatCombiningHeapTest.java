@@ -0,0 +1,150 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlatCombiningHeapTest {
+
+    @Test
+    void testSingleThread() throws EmptyHeapException {
+        FlatCombiningHeap<Integer> heap = new FlatCombiningHeap<Integer>(4, Comparator.naturalOrder());
+        assertThrows(EmptyHeapException.class, heap::extreme);
+        assertThrows(EmptyHeapException.class, heap::deleteExtreme);
+        for (int e : new int[]{3, 7, 5, 1, 9})
+            heap.add(e);
+        heap.addAll(List.of(8, 2));
+        assertEquals(7, heap.size());
+        assertEquals(9, heap.extreme());
+        for (int expected : new int[]{9, 8, 7, 5, 3, 2, 1})
+            assertEquals(expected, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    /**
+     * The comparator throws at the failAt-th comparison: the request fails
+     * in the thread which made it, registered or not, and it is undone.
+     * 10 fails while it moves up, after 3 has moved down, and 5 fails
+     * while the new root moves down.
+     */
+    @Test
+    void testFailedRequest() throws InterruptedException, EmptyHeapException {
+        AtomicInteger failAt = new AtomicInteger();
+        Comparator<Integer> comparator = (a, b) -> {
+            if (failAt.decrementAndGet() == 0)
+                throw new IllegalArgumentException("failAt");
+            return Integer.compare(a, b);
+        };
+        FlatCombiningHeap<Integer> heap = new FlatCombiningHeap<Integer>(1, comparator);
+        for (int e : new int[]{5, 3, 4, 1})
+            heap.add(e); // the main thread takes the only slot
+        failAt.set(2);
+        assertThrows(IllegalArgumentException.class, () -> heap.add(10));
+        failAt.set(2);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread unregistered = new Thread(() -> {
+            try {
+                heap.add(10);
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        unregistered.start();
+        unregistered.join();
+        assertTrue(failure.get() instanceof IllegalArgumentException, String.valueOf(failure.get()));
+        assertEquals(4, heap.size());
+        failAt.set(1);
+        assertThrows(IllegalArgumentException.class, heap::deleteExtreme);
+        assertEquals(4, heap.size());
+        failAt.set(3);
+        assertThrows(IllegalArgumentException.class, () -> heap.addAll(List.of(10, 2, 8)));
+        for (int expected : new int[]{5, 4, 3, 1})
+            assertEquals(expected, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    /**
+     * The comparator throws again while a failed request is undone:
+     * the queue is unusable.
+     */
+    @Test
+    void testUnusableAfterFailedRollBack() throws EmptyHeapException {
+        AtomicBoolean failing = new AtomicBoolean();
+        Comparator<Integer> comparator = (a, b) -> {
+            if (failing.get())
+                throw new IllegalArgumentException("failing");
+            return Integer.compare(a, b);
+        };
+        FlatCombiningHeap<Integer> heap = new FlatCombiningHeap<Integer>(1, comparator);
+        heap.add(5);
+        heap.add(3);
+        failing.set(true);
+        assertThrows(IllegalArgumentException.class, () -> heap.add(10));
+        failing.set(false);
+        assertThrows(IllegalStateException.class, heap::deleteExtreme);
+        assertThrows(IllegalStateException.class, () -> heap.add(1));
+        assertThrows(IllegalStateException.class, () -> heap.addAll(List.of(1, 2)));
+    }
+
+    /**
+     * The threads first add their elements, then delete all of them:
+     * each thread must delete its elements in decreasing order.
+     */
+    private static void testConcurrentAddThenDelete(int nbSlots, int nbThreads) throws InterruptedException {
+        FlatCombiningHeap<Integer> heap = new FlatCombiningHeap<Integer>(nbSlots, Comparator.naturalOrder());
+        int perThread = 20_000;
+        ConcurrentLinkedQueue<Integer> deleted = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        CyclicBarrier barrier = new CyclicBarrier(nbThreads);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            int first = t * perThread;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++)
+                        heap.add(first + i);
+                    barrier.await();
+                    int previous = Integer.MAX_VALUE;
+                    for (int i = 0; i < perThread; i++) {
+                        int e = heap.deleteExtreme();
+                        if (e > previous)
+                            throw new AssertionError(e + " deleted after " + previous);
+                        previous = e;
+                        deleted.add(e);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+        assertTrue(failures.isEmpty(), failures.toString());
+        assertTrue(heap.isEmpty());
+        int[] all = deleted.stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] expected = new int[nbThreads * perThread];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, all);
+    }
+
+    @Test
+    void testConcurrentAddThenDelete() throws InterruptedException {
+        testConcurrentAddThenDelete(8, 4);
+    }
+
+    @Test
+    void testMoreThreadsThanSlots() throws InterruptedException {
+        testConcurrentAddThenDelete(2, 6);
+    }
+}
@@ -0,0 +1,430 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+import util.ToolsForPerformance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Benchmarks of the heap implementations.
+ * The measures are only printed: they depend on the machine.
+ */
+class HeapPerformanceTest {
+
+    private static final Random RANDOM = new Random(42);
+
+    private static Integer[] buildRandomArray(int size) {
+        Integer[] array = new Integer[size];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = RANDOM.nextInt(size);
+        }
+        return array;
+    }
+
+    private static void fillAndDrain(DaryHeap<Integer> heap, Integer[] array) {
+        try {
+            for (Integer e : array)
+                heap.add(e);
+            while (!heap.isEmpty())
+                heap.deleteExtreme();
+        } catch (FullHeapException | EmptyHeapException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void fillAndDrain(BinaryHeap<Integer> heap, Integer[] array) {
+        try {
+            for (Integer e : array)
+                heap.add(e);
+            while (!heap.isEmpty())
+                heap.deleteExtreme();
+        } catch (FullHeapException | EmptyHeapException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * add then deleteExtreme every element: deleteExtreme dominates.
+     * A d-ary tree is log2(d) times shallower, but deleteExtreme compares
+     * d children per level instead of 2, so the gain is small: with Integer
+     * elements, each comparison follows a reference, and the contiguous
+     * children do not save much. On 1M and 4M elements 8-ary was about 10%
+     * faster than BinaryHeap, while 4-ary was within the noise (or slower).
+     * On small heaps that fit in the cache the difference is noise.
+     */
+    @Test
+    void testCompareArities() {
+        for (int size : new int[]{10_000, 1_000_000}) {
+            Integer[] array = buildRandomArray(size);
+            Map<String, Runnable> map = new LinkedHashMap<>();
+            map.put("BinaryHeap", () -> fillAndDrain(new BinaryHeap<Integer>(size), array));
+            map.put("2-ary", () -> fillAndDrain(new DaryHeap<>(2, size), array));
+            map.put("4-ary", () -> fillAndDrain(new DaryHeap<>(4, size), array));
+            map.put("8-ary", () -> fillAndDrain(new DaryHeap<>(8, size), array));
+            List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                    ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+            System.out.println("Heap of " + ToolsForPerformance.formatNumber((long) size) + " elements :");
+            measures.forEach(System.out::println);
+            System.out.println("Best : " + ToolsForPerformance.compareMeasures(measures));
+        }
+    }
+
+    /**
+     * Each worker fills a local heap, then the local heaps are combined
+     * into one and the 1,000 best elements are deleted.
+     * BinaryHeap drains each local heap into the global one: O(m.log(n)).
+     * PairingHeap melds the local heaps: THETA(1) each.
+     */
+    @Test
+    void testCompareMeld() {
+        int nbWorkers = 8;
+        Integer[][] local = new Integer[nbWorkers][];
+        for (int w = 0; w < nbWorkers; w++)
+            local[w] = buildRandomArray(100_000);
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("BinaryHeap drain and add", () -> {
+            try {
+                BinaryHeap<Integer> global = new BinaryHeap<Integer>(16, Comparator.naturalOrder(), true);
+                for (Integer[] array : local) {
+                    BinaryHeap<Integer> heap = new BinaryHeap<Integer>(array.length);
+                    for (Integer e : array)
+                        heap.add(e);
+                    while (!heap.isEmpty())
+                        global.add(heap.deleteExtreme());
+                }
+                for (int i = 0; i < 1000; i++)
+                    global.deleteExtreme();
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        map.put("PairingHeap meld", () -> {
+            try {
+                PairingHeap<Integer> global = new PairingHeap<>();
+                for (Integer[] array : local) {
+                    PairingHeap<Integer> heap = new PairingHeap<>();
+                    for (Integer e : array)
+                        heap.add(e);
+                    global.meld(heap);
+                }
+                for (int i = 0; i < 1000; i++)
+                    global.deleteExtreme();
+            } catch (EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        System.out.println("Combine " + nbWorkers + " heaps of 100,000 elements :");
+        measures.forEach(System.out::println);
+    }
+
+    /**
+     * Hold model of a discrete event simulation: the next event is
+     * deleted and a new one is scheduled after it.
+     */
+    @Test
+    void testCompareMonotoneHeaps() {
+        int nbPending = 100_000;
+        int nbEvents = 2_000_000;
+        long[] initial = new long[nbPending];
+        for (int i = 0; i < nbPending; i++)
+            initial[i] = RANDOM.nextInt(1_000_000);
+        long[] delays = new long[nbEvents];
+        for (int i = 0; i < nbEvents; i++)
+            delays[i] = (long) (-Math.log(1 - RANDOM.nextDouble()) * 1_000_000);
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("BinaryHeap<Long>", () -> {
+            try {
+                BinaryHeap<Long> heap = new BinaryHeap<Long>(nbPending, Comparator.reverseOrder());
+                for (long time : initial)
+                    heap.add(time);
+                for (long delay : delays)
+                    heap.add(heap.deleteExtreme() + delay);
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        map.put("LongBinaryHeap", () -> {
+            try {
+                LongBinaryHeap heap = new LongBinaryHeap(nbPending, HeapOrder.MIN);
+                for (long time : initial)
+                    heap.add(time);
+                for (long delay : delays)
+                    heap.add(heap.deleteExtreme() + delay);
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        map.put("RadixHeap", () -> {
+            try {
+                RadixHeap heap = new RadixHeap();
+                for (long time : initial)
+                    heap.add(time);
+                for (long delay : delays)
+                    heap.add(heap.deleteExtreme() + delay);
+            } catch (EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        System.out.println("Hold model, " + nbPending + " pending events, " + nbEvents + " events :");
+        measures.forEach(System.out::println);
+    }
+
+    private static void addCancelAndDrain(BinaryHeap<Integer> heap, Integer[] array, Integer[] cancelled) {
+        try {
+            heap.addAll(array);
+            for (Integer e : cancelled)
+                heap.delete(e);
+            while (!heap.isEmpty())
+                heap.deleteExtreme();
+        } catch (FullHeapException | EmptyHeapException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Half of the elements are cancelled before the heap is drained.
+     * An eager delete scans the array, with or without the index.
+     * A lazy delete finds its element with the index, which
+     * enableLazyDeletion enables.
+     */
+    @Test
+    void testCompareLazyDeletion() {
+        int size = 40_000;
+        Integer[] array = new Integer[size];
+        for (int i = 0; i < size; i++)
+            array[i] = i;
+        List<Integer> shuffled = new ArrayList<>(Arrays.asList(array));
+        Collections.shuffle(shuffled, RANDOM);
+        Integer[] cancelled = shuffled.subList(0, size / 2).toArray(new Integer[0]);
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("eager delete", () -> addCancelAndDrain(new BinaryHeap<Integer>(size), array, cancelled));
+        map.put("eager delete, indexed", () -> {
+            BinaryHeap<Integer> heap = new BinaryHeap<Integer>(size);
+            heap.enableIndex();
+            addCancelAndDrain(heap, array, cancelled);
+        });
+        map.put("lazy delete", () -> {
+            BinaryHeap<Integer> heap = new BinaryHeap<Integer>(size);
+            heap.enableLazyDeletion(0.5);
+            addCancelAndDrain(heap, array, cancelled);
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        System.out.println("Cancel " + cancelled.length + " of " + size + " elements :");
+        measures.forEach(System.out::println);
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+
+        Event(long time) {
+            this.time = time;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return Long.compare(time, other.time);
+        }
+    }
+
+    /**
+     * Fill and drain heaps of events ordered by a long field.
+     */
+    @Test
+    void testCompareKeyedHeap() {
+        int size = 1_000_000;
+        Event[] events = new Event[size];
+        for (int i = 0; i < size; i++)
+            events[i] = new Event(RANDOM.nextLong());
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("BinaryHeap with comparator", () -> {
+            try {
+                Comparator<Event> byTime = Comparator.comparingLong(e -> e.time);
+                BinaryHeap<Event> heap = new BinaryHeap<>(size, byTime.reversed());
+                for (Event e : events)
+                    heap.add(e);
+                while (!heap.isEmpty())
+                    heap.deleteExtreme();
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        map.put("KeyedBinaryHeap", () -> {
+            try {
+                KeyedBinaryHeap<Event> heap = new KeyedBinaryHeap<>(size, e -> e.time, HeapOrder.MIN);
+                for (Event e : events)
+                    heap.add(e);
+                while (!heap.isEmpty())
+                    heap.deleteExtreme();
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        System.out.println("Fill and drain " + size + " events :");
+        measures.forEach(System.out::println);
+    }
+
+    /**
+     * Run nbThreads threads which alternate add and deleteExtreme.
+     */
+    private static void runConcurrently(int nbThreads, int nbOperations, IntConsumer operation) {
+        Thread[] threads = new Thread[nbThreads];
+        for (int t = 0; t < nbThreads; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < nbOperations; i++)
+                    operation.accept(i);
+            });
+            threads[t].start();
+        }
+        try {
+            for (Thread thread : threads)
+                thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Throughput of strict concurrent heaps under contention:
+     * each thread alternates add and deleteExtreme on a heap of 10,000 elements.
+     */
+    @Test
+    void testCompareConcurrentHeaps() {
+        int nbThreads = 4;
+        int nbOperations = 200_000;
+        Integer[] initial = buildRandomArray(10_000);
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("synchronized BinaryHeap", () -> {
+            BinaryHeap<Integer> heap = new BinaryHeap<Integer>(16, Comparator.naturalOrder(), true);
+            try {
+                heap.addAll(initial);
+            } catch (FullHeapException e) {
+                throw new IllegalStateException(e);
+            }
+            runConcurrently(nbThreads, nbOperations, i -> {
+                synchronized (heap) {
+                    try {
+                        if (i % 2 == 0)
+                            heap.add(i);
+                        else
+                            heap.deleteExtreme();
+                    } catch (FullHeapException | EmptyHeapException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+        });
+        map.put("PriorityBlockingQueue", () -> {
+            PriorityBlockingQueue<Integer> queue = new PriorityBlockingQueue<>(16, Comparator.reverseOrder());
+            queue.addAll(Arrays.asList(initial));
+            runConcurrently(nbThreads, nbOperations, i -> {
+                if (i % 2 == 0)
+                    queue.add(i);
+                else
+                    queue.poll();
+            });
+        });
+        map.put("FlatCombiningHeap", () -> {
+            FlatCombiningHeap<Integer> heap = new FlatCombiningHeap<Integer>(Comparator.naturalOrder());
+            heap.addAll(Arrays.asList(initial));
+            runConcurrently(nbThreads, nbOperations, i -> {
+                try {
+                    if (i % 2 == 0)
+                        heap.add(i);
+                    else
+                        heap.deleteExtreme();
+                } catch (EmptyHeapException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        System.out.println(nbThreads + " threads, " + nbOperations + " operations each, "
+                + Runtime.getRuntime().availableProcessors() + " processors :");
+        measures.forEach(System.out::println);
+    }
+
+    /**
+     * Build time of a heap of 20 million elements,
+     * on one thread then with a pool of each size up to the number of processors.
+     */
+    @Test
+    void testCompareParallelBuildHeap() {
+        Integer[] array = buildRandomArray(20_000_000);
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        // addAll on an empty heap always runs the sequential buildHeap
+        map.put("buildHeap, sequential", () -> {
+            try {
+                new BinaryHeap<Integer>(array.length, Comparator.naturalOrder()).addAll(array);
+            } catch (FullHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<ForkJoinPool> pools = new ArrayList<>();
+        for (int p = 1; p <= processors; p = p < processors && 2 * p > processors ? processors : 2 * p) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            pools.add(pool);
+            map.put("buildHeap, fork/join on " + p + " threads",
+                    () -> new BinaryHeap<Integer>(array.clone(), Comparator.naturalOrder(), pool));
+        }
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        pools.forEach(ForkJoinPool::shutdown);
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors :");
+        measures.forEach(System.out::println);
+    }
+
+    /**
+     * Fill and drain 5 million longs: in memory,
+     * and with an insertion buffer of 1/20 of them which spills to disk.
+     */
+    @Test
+    void testCompareExternalHeap() throws IOException {
+        int size = 5_000_000;
+        long[] values = new long[size];
+        for (int i = 0; i < size; i++)
+            values[i] = RANDOM.nextLong();
+        Path directory = Files.createTempDirectory("heap-runs");
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("BinaryHeap<Long>, in memory", () -> {
+            BinaryHeap<Long> heap = new BinaryHeap<Long>(16, Comparator.naturalOrder(), true);
+            try {
+                for (long value : values)
+                    heap.add(value);
+                while (!heap.isEmpty())
+                    heap.deleteExtreme();
+            } catch (FullHeapException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        map.put("ExternalBinaryHeap<Long>, buffer of " + size / 20, () -> {
+            try (ExternalBinaryHeap<Long> heap = new ExternalBinaryHeap<Long>(size / 20, Comparator.naturalOrder(),
+                    HeapSnapshot.LONG_CODEC, directory)) {
+                for (long value : values)
+                    heap.add(value);
+                while (!heap.isEmpty())
+                    heap.deleteExtreme();
+            } catch (IOException | EmptyHeapException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        Files.delete(directory);
+        measures.forEach(System.out::println);
+    }
+}
@@ -0,0 +1,172 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeapSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static int[] buildRandomArray(int size) {
+        Random random = new Random(42);
+        int[] array = new int[size];
+        for (int i = 0; i < size; i++)
+            array[i] = random.nextInt();
+        return array;
+    }
+
+    /**
+     * Overwrite the int at the end of file.
+     */
+    private static void corruptLastInt(Path file, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN).putInt(value);
+            buffer.flip();
+            channel.write(buffer, channel.size() - Integer.BYTES);
+        }
+    }
+
+    @Test
+    void testIntBinaryHeap() throws IOException, FullHeapException, EmptyHeapException {
+        IntBinaryHeap heap = new IntBinaryHeap(buildRandomArray(10_000), HeapOrder.MIN);
+        heap.deleteExtreme();
+        Path file = tempDir.resolve("int.heap");
+        HeapSnapshot.write(heap, file);
+        IntBinaryHeap restored = HeapSnapshot.readIntBinaryHeap(file, true);
+        assertEquals(HeapOrder.MIN, restored.order());
+        assertEquals(heap.size(), restored.size());
+        restored.add(0);
+        heap.add(0);
+        while (!heap.isEmpty())
+            assertEquals(heap.deleteExtreme(), restored.deleteExtreme());
+        assertTrue(restored.isEmpty());
+    }
+
+    @Test
+    void testLongAndDoubleBinaryHeaps() throws IOException, EmptyHeapException {
+        LongBinaryHeap longHeap = new LongBinaryHeap(new long[]{3, 7, 5, 1, 9});
+        Path file = tempDir.resolve("long.heap");
+        HeapSnapshot.write(longHeap, file);
+        LongBinaryHeap restoredLong = HeapSnapshot.readLongBinaryHeap(file, true);
+        assertEquals(HeapOrder.MAX, restoredLong.order());
+        for (long expected : new long[]{9, 7, 5, 3, 1})
+            assertEquals(expected, restoredLong.deleteExtreme());
+
+        DoubleBinaryHeap doubleHeap = new DoubleBinaryHeap(new double[]{0.5, -1, 2.5}, HeapOrder.MIN);
+        file = tempDir.resolve("double.heap");
+        HeapSnapshot.write(doubleHeap, file);
+        DoubleBinaryHeap restoredDouble = HeapSnapshot.readDoubleBinaryHeap(file, true);
+        for (double expected : new double[]{-1, 0.5, 2.5})
+            assertEquals(expected, restoredDouble.deleteExtreme());
+    }
+
+    @Test
+    void testBinaryHeap() throws IOException, FullHeapException, EmptyHeapException {
+        BinaryHeap<String> heap = new BinaryHeap<String>(4, Comparator.reverseOrder(), 100);
+        heap.addAll(new String[]{"pear", "apple", "fig", "kiwi", "été"});
+        Path file = tempDir.resolve("string.heap");
+        HeapSnapshot.write(heap, "reverse", HeapSnapshot.STRING_CODEC, file);
+        BinaryHeap<String> restored = HeapSnapshot.readBinaryHeap(file, "reverse", Comparator.reverseOrder(),
+                HeapSnapshot.STRING_CODEC, true);
+        assertEquals(heap.capacity(), restored.capacity());
+        assertTrue(restored.isGrowable());
+        for (String expected : new String[]{"apple", "fig", "kiwi", "pear", "été"})
+            assertEquals(expected, restored.deleteExtreme());
+        assertThrows(IOException.class, () -> HeapSnapshot.readBinaryHeap(file, "natural", Comparator.naturalOrder(),
+                HeapSnapshot.STRING_CODEC, false));
+    }
+
+    @Test
+    void testSmallWindows() throws IOException, FullHeapException, EmptyHeapException {
+        BinaryHeap<String> heap = new BinaryHeap<String>(16, Comparator.naturalOrder(), true);
+        for (int i = 0; i < 100; i++)
+            heap.add("element " + i);
+        Path file = tempDir.resolve("windows.heap");
+        HeapSnapshot.write(heap, "natural", HeapSnapshot.STRING_CODEC, file);
+        BinaryHeap<String> restored = HeapSnapshot.readBinaryHeap(file, "natural", Comparator.naturalOrder(),
+                HeapSnapshot.STRING_CODEC, true, 64);
+        while (!heap.isEmpty())
+            assertEquals(heap.deleteExtreme(), restored.deleteExtreme());
+
+        IntBinaryHeap intHeap = new IntBinaryHeap(buildRandomArray(1000));
+        file = tempDir.resolve("int.heap");
+        HeapSnapshot.write(intHeap, file);
+        IntBinaryHeap restoredInt = HeapSnapshot.readIntBinaryHeap(file, true, 64);
+        while (!intHeap.isEmpty())
+            assertEquals(intHeap.deleteExtreme(), restoredInt.deleteExtreme());
+
+        long[] longs = new long[1000];
+        double[] doubles = new double[1000];
+        for (int i = 0; i < longs.length; i++) {
+            longs[i] = (long) i * i - 100_000;
+            doubles[i] = longs[i] / 3.0;
+        }
+        LongBinaryHeap longHeap = new LongBinaryHeap(longs);
+        file = tempDir.resolve("long.heap");
+        HeapSnapshot.write(longHeap, file);
+        LongBinaryHeap restoredLong = HeapSnapshot.readLongBinaryHeap(file, true, 64);
+        while (!longHeap.isEmpty())
+            assertEquals(longHeap.deleteExtreme(), restoredLong.deleteExtreme());
+        DoubleBinaryHeap doubleHeap = new DoubleBinaryHeap(doubles, HeapOrder.MIN);
+        file = tempDir.resolve("double.heap");
+        HeapSnapshot.write(doubleHeap, file);
+        DoubleBinaryHeap restoredDouble = HeapSnapshot.readDoubleBinaryHeap(file, true, 64);
+        while (!doubleHeap.isEmpty())
+            assertEquals(doubleHeap.deleteExtreme(), restoredDouble.deleteExtreme());
+    }
+
+    @Test
+    void testValidation() throws IOException {
+        IntBinaryHeap heap = new IntBinaryHeap(new int[]{3, 7, 5, 1, 9});
+        Path file = tempDir.resolve("corrupted.heap");
+        HeapSnapshot.write(heap, file);
+        corruptLastInt(file, 100);
+        assertThrows(IOException.class, () -> HeapSnapshot.readIntBinaryHeap(file, true));
+        assertEquals(5, HeapSnapshot.readIntBinaryHeap(file, false).size());
+        assertThrows(IOException.class, () -> HeapSnapshot.readLongBinaryHeap(file, false));
+    }
+
+    @Test
+    void testTruncatedSnapshot() throws IOException, FullHeapException {
+        Path file = tempDir.resolve("truncated.heap");
+        HeapSnapshot.write(new IntBinaryHeap(new int[]{3, 7, 5, 1, 9}), file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 2);
+        }
+        EOFException e = assertThrows(EOFException.class, () -> HeapSnapshot.readIntBinaryHeap(file, false));
+        assertTrue(e.getMessage().contains("5 elements"), e.getMessage());
+
+        Path longFile = tempDir.resolve("truncated-long.heap");
+        HeapSnapshot.write(new LongBinaryHeap(new long[]{3, 7, 5}), longFile);
+        truncate(longFile, Long.BYTES);
+        assertThrows(EOFException.class, () -> HeapSnapshot.readLongBinaryHeap(longFile, false));
+
+        Path stringFile = tempDir.resolve("truncated-string.heap");
+        BinaryHeap<String> heap = new BinaryHeap<String>(4, Comparator.naturalOrder(), true);
+        heap.add("a");
+        heap.add("b");
+        HeapSnapshot.write(heap, "natural", HeapSnapshot.STRING_CODEC, stringFile);
+        truncate(stringFile, 5); // the last string and 4 bytes of the first one
+        assertThrows(EOFException.class, () -> HeapSnapshot.readBinaryHeap(stringFile, "natural",
+                Comparator.naturalOrder(), HeapSnapshot.STRING_CODEC, false));
+    }
+
+    private static void truncate(Path file, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - bytes);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedBinaryHeapTest {
+
+    IndexedBinaryHeap<Integer> heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new IndexedBinaryHeap<>(new Integer[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6}, Comparator.reverseOrder());
+    }
+
+    /**
+     * Check that every node is not greater than its parent
+     * and that the index gives the right node for each element.
+     */
+    private void assertIsHeap(IndexedBinaryHeap<Integer> heap) {
+        Integer[] array = heap.getArray();
+        for (int i = 1; i < heap.size(); i++)
+            assertTrue(array[(i - 1) / 2] <= array[i], "heap property broken at " + i);
+        for (int i = 0; i < heap.size(); i++)
+            assertTrue(heap.contains(array[i]));
+    }
+
+    @Test
+    void testHeapFromLesson() throws EmptyHeapException {
+        assertEquals(1, heap.extreme());
+        assertEquals(12, heap.getArray()[7]);
+        assertTrue(heap.isLeaf(9));
+        assertTrue(heap.isLeaf(10));
+        assertTrue(heap.isLeaf(11));
+        assertFalse(heap.isLeaf(6));
+        assertFalse(heap.isLeaf(42));
+        assertIsHeap(heap);
+    }
+
+    @Test
+    void testDuplicates() throws FullHeapException {
+        assertThrows(IllegalArgumentException.class, () -> new IndexedBinaryHeap<>(new Integer[]{1, 2, 1}, Comparator.naturalOrder()));
+        IndexedBinaryHeap<Integer> empty = new IndexedBinaryHeap<>(3);
+        empty.add(1);
+        assertThrows(IllegalArgumentException.class, () -> empty.add(1));
+    }
+
+    @Test
+    void testDelete() throws EmptyHeapException {
+        heap.delete(3);
+        heap.delete(12);
+        heap.delete(42);
+        assertFalse(heap.contains(3));
+        assertFalse(heap.contains(12));
+        assertEquals(10, heap.size());
+        assertIsHeap(heap);
+        int previous = heap.deleteExtreme();
+        while (!heap.isEmpty()) {
+            int current = heap.deleteExtreme();
+            assertTrue(previous < current);
+            previous = current;
+        }
+    }
+
+    @Test
+    void testChangeKeys() throws EmptyHeapException {
+        heap.decreaseKey(11, 0);
+        assertEquals(0, heap.extreme());
+        heap.increaseKey(0, 13);
+        assertEquals(1, heap.extreme());
+        assertTrue(heap.isLeaf(13));
+        heap.changePriority(1, 14);
+        assertEquals(2, heap.extreme());
+        assertFalse(heap.contains(1));
+        assertTrue(heap.contains(14));
+        assertIsHeap(heap);
+        assertThrows(IllegalArgumentException.class, () -> heap.decreaseKey(2, 3));
+        assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(2, 0));
+        assertThrows(IllegalArgumentException.class, () -> heap.increaseKey(42, 43));
+        assertThrows(IllegalArgumentException.class, () -> heap.changePriority(42, 43));
+        assertThrows(IllegalArgumentException.class, () -> heap.changePriority(2, 3));
+    }
+
+    @Test
+    void testChangePriorityInPlace() throws FullHeapException, EmptyHeapException {
+        class Task implements Comparable<Task> {
+            int priority;
+            Task(int priority) { this.priority = priority; }
+            public int compareTo(Task o) { return Integer.compare(priority, o.priority); }
+        }
+        IndexedBinaryHeap<Task> tasks = new IndexedBinaryHeap<>(4);
+        Task a = new Task(1);
+        Task b = new Task(2);
+        Task c = new Task(3);
+        tasks.add(a);
+        tasks.add(b);
+        tasks.add(c);
+        assertSame(c, tasks.extreme());
+        a.priority = 10;
+        tasks.changePriority(a);
+        assertSame(a, tasks.deleteExtreme());
+        assertSame(c, tasks.deleteExtreme());
+        assertSame(b, tasks.deleteExtreme());
+    }
+}
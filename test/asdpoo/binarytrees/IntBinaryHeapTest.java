@@ -0,0 +1,86 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBinaryHeapTest {
+
+    IntBinaryHeap maxHeap;
+    IntBinaryHeap minHeap;
+
+    @BeforeEach
+    void setUp() {
+        maxHeap = new IntBinaryHeap(10);
+        minHeap = new IntBinaryHeap(new int[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6}, HeapOrder.MIN);
+    }
+
+    @Test
+    void testHeapFromLesson() throws EmptyHeapException {
+        assertEquals(1, minHeap.extreme());
+        assertEquals(12, minHeap.getArray()[7]);
+        assertEquals(9, minHeap.getArray()[6]);
+        assertTrue(minHeap.isLeaf(9));
+        assertTrue(minHeap.isLeaf(10));
+        assertTrue(minHeap.isLeaf(11));
+        assertFalse(minHeap.isLeaf(6));
+        assertFalse(minHeap.isLeaf(42));
+    }
+
+    @Test
+    void testSizeAndIsEmpty() {
+        assertEquals(0, maxHeap.size());
+        assertTrue(maxHeap.isEmpty());
+        assertEquals(12, minHeap.size());
+        assertFalse(minHeap.isEmpty());
+    }
+
+    @Test
+    void testInsert() throws FullHeapException {
+        maxHeap.add(1);
+        maxHeap.add(5);
+        maxHeap.add(2);
+        maxHeap.add(10);
+        maxHeap.add(7);
+        assertArrayEquals(new int[]{10, 7, 2, 1, 5, 0, 0, 0, 0, 0}, maxHeap.getArray());
+    }
+
+    @Test
+    void testFullHeap() throws FullHeapException {
+        IntBinaryHeap heap = new IntBinaryHeap(2);
+        heap.add(1);
+        heap.add(2);
+        assertThrows(FullHeapException.class, () -> heap.add(3));
+    }
+
+    @Test
+    void testDeleteExtreme() throws EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> maxHeap.deleteExtreme());
+        for (int i = 1; i <= 12; i++)
+            assertEquals(i, minHeap.deleteExtreme());
+        assertTrue(minHeap.isEmpty());
+    }
+
+    @Test
+    void testDelete() throws EmptyHeapException {
+        minHeap = new IntBinaryHeap(new int[]{3, 7, 5, 1, 9, 7}, HeapOrder.MIN);
+        minHeap.delete(7);
+        assertEquals(5, minHeap.size());
+        minHeap.delete(1);
+        assertEquals(3, minHeap.deleteExtreme());
+        assertEquals(5, minHeap.deleteExtreme());
+        assertEquals(7, minHeap.deleteExtreme());
+        assertEquals(9, minHeap.deleteExtreme());
+    }
+
+    @Test
+    void testDeleteAll() throws EmptyHeapException {
+        maxHeap = new IntBinaryHeap(new int[]{3, 7, 5, 1, 9, 0, 9, 7, 9});
+        maxHeap.deleteAll(9);
+        assertEquals(6, maxHeap.size());
+        assertEquals(7, maxHeap.deleteExtreme());
+        assertEquals(7, maxHeap.deleteExtreme());
+        assertEquals(5, maxHeap.deleteExtreme());
+    }
+}
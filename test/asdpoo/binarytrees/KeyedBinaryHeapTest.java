@@ -0,0 +1,84 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedBinaryHeapTest {
+
+    record Job(String name, long due) implements Comparable<Job> {
+        @Override
+        public int compareTo(Job other) {
+            return Long.compare(due, other.due);
+        }
+    }
+
+    KeyedBinaryHeap<Job> heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new KeyedBinaryHeap<>(10, Job::due, HeapOrder.MIN);
+    }
+
+    @Test
+    void testDeleteExtreme() throws FullHeapException, EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> heap.extreme());
+        assertThrows(EmptyHeapException.class, () -> heap.deleteExtreme());
+        heap.add(new Job("c", 30));
+        heap.add(new Job("a", 10));
+        heap.add(new Job("d", 40));
+        heap.add(new Job("b", 20));
+        assertEquals(4, heap.size());
+        assertEquals(10L, heap.extremeKey());
+        assertEquals("a", heap.extreme().name());
+        assertEquals("a", heap.deleteExtreme().name());
+        assertEquals("b", heap.deleteExtreme().name());
+        assertEquals("c", heap.deleteExtreme().name());
+        assertEquals("d", heap.deleteExtreme().name());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testFullHeap() throws FullHeapException {
+        KeyedBinaryHeap<String> lengths = new KeyedBinaryHeap<>(2, String::length);
+        lengths.add("a");
+        lengths.add("bb");
+        assertThrows(FullHeapException.class, () -> lengths.add("ccc"));
+    }
+
+    @Test
+    void testBuildFromArrayAndDelete() throws EmptyHeapException {
+        String[] words = {"pear", "fig", "banana", "kiwi", "apple"};
+        KeyedBinaryHeap<String> lengths = new KeyedBinaryHeap<>(words, String::length, HeapOrder.MAX);
+        assertEquals(HeapOrder.MAX, lengths.order());
+        assertEquals("banana", lengths.deleteExtreme());
+        lengths.delete("kiwi");
+        lengths.delete("plum"); // same key, other element
+        assertEquals(3, lengths.size());
+        assertEquals("apple", lengths.deleteExtreme());
+        assertEquals("pear", lengths.deleteExtreme());
+        assertEquals("fig", lengths.deleteExtreme());
+    }
+
+    @Test
+    void testRandomOperations() throws FullHeapException, EmptyHeapException {
+        Random random = new Random(42);
+        KeyedBinaryHeap<Job> keyed = new KeyedBinaryHeap<>(10_000, Job::due, HeapOrder.MIN);
+        BinaryHeap<Job> reference = new BinaryHeap<Job>(10_000, Comparator.reverseOrder());
+        for (int i = 0; i < 10_000; i++) {
+            if (random.nextInt(3) > 0 || reference.isEmpty()) {
+                Job job = new Job("job" + i, random.nextInt(100));
+                keyed.add(job);
+                reference.add(job);
+            } else
+                assertEquals(reference.deleteExtreme().due(), keyed.deleteExtreme().due());
+        }
+        while (!reference.isEmpty())
+            assertEquals(reference.deleteExtreme().due(), keyed.deleteExtreme().due());
+        assertTrue(keyed.isEmpty());
+    }
+}
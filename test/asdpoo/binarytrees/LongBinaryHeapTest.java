@@ -0,0 +1,86 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongBinaryHeapTest {
+
+    LongBinaryHeap maxHeap;
+    LongBinaryHeap minHeap;
+
+    @BeforeEach
+    void setUp() {
+        maxHeap = new LongBinaryHeap(10);
+        minHeap = new LongBinaryHeap(new long[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6}, HeapOrder.MIN);
+    }
+
+    @Test
+    void testHeapFromLesson() throws EmptyHeapException {
+        assertEquals(1L, minHeap.extreme());
+        assertEquals(12L, minHeap.getArray()[7]);
+        assertEquals(9L, minHeap.getArray()[6]);
+        assertTrue(minHeap.isLeaf(9L));
+        assertTrue(minHeap.isLeaf(10L));
+        assertTrue(minHeap.isLeaf(11L));
+        assertFalse(minHeap.isLeaf(6L));
+        assertFalse(minHeap.isLeaf(42L));
+    }
+
+    @Test
+    void testSizeAndIsEmpty() {
+        assertEquals(0, maxHeap.size());
+        assertTrue(maxHeap.isEmpty());
+        assertEquals(12, minHeap.size());
+        assertFalse(minHeap.isEmpty());
+    }
+
+    @Test
+    void testInsert() throws FullHeapException {
+        maxHeap.add(1L);
+        maxHeap.add(5L);
+        maxHeap.add(2L);
+        maxHeap.add(10L);
+        maxHeap.add(7L);
+        assertArrayEquals(new long[]{10, 7, 2, 1, 5, 0, 0, 0, 0, 0}, maxHeap.getArray());
+    }
+
+    @Test
+    void testFullHeap() throws FullHeapException {
+        LongBinaryHeap heap = new LongBinaryHeap(2);
+        heap.add(1L);
+        heap.add(2L);
+        assertThrows(FullHeapException.class, () -> heap.add(3L));
+    }
+
+    @Test
+    void testDeleteExtreme() throws EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> maxHeap.deleteExtreme());
+        for (int i = 1; i <= 12; i++)
+            assertEquals((long) i, minHeap.deleteExtreme());
+        assertTrue(minHeap.isEmpty());
+    }
+
+    @Test
+    void testDelete() throws EmptyHeapException {
+        minHeap = new LongBinaryHeap(new long[]{3, 7, 5, 1, 9, 7}, HeapOrder.MIN);
+        minHeap.delete(7L);
+        assertEquals(5, minHeap.size());
+        minHeap.delete(1L);
+        assertEquals(3L, minHeap.deleteExtreme());
+        assertEquals(5L, minHeap.deleteExtreme());
+        assertEquals(7L, minHeap.deleteExtreme());
+        assertEquals(9L, minHeap.deleteExtreme());
+    }
+
+    @Test
+    void testDeleteAll() throws EmptyHeapException {
+        maxHeap = new LongBinaryHeap(new long[]{3, 7, 5, 1, 9, 0, 9, 7, 9});
+        maxHeap.deleteAll(9L);
+        assertEquals(6, maxHeap.size());
+        assertEquals(7L, maxHeap.deleteExtreme());
+        assertEquals(7L, maxHeap.deleteExtreme());
+        assertEquals(5L, maxHeap.deleteExtreme());
+    }
+}
@@ -0,0 +1,67 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinMaxHeapTest {
+
+    @Test
+    void testMinAndMax() throws FullHeapException, EmptyHeapException {
+        MinMaxHeap<Integer> heap = new MinMaxHeap<>(20);
+        assertThrows(EmptyHeapException.class, heap::min);
+        assertThrows(EmptyHeapException.class, heap::max);
+        for (int i : new int[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6})
+            heap.add(i);
+        assertEquals(12, heap.size());
+        assertEquals(1, heap.min());
+        assertEquals(12, heap.max());
+        assertEquals(12, heap.deleteMax());
+        assertEquals(1, heap.deleteMin());
+        assertEquals(11, heap.deleteMax());
+        assertEquals(2, heap.deleteMin());
+        assertEquals(8, heap.size());
+    }
+
+    @Test
+    void testSmallHeaps() throws FullHeapException, EmptyHeapException {
+        MinMaxHeap<Integer> heap = new MinMaxHeap<>(2);
+        heap.add(4);
+        assertEquals(4, heap.min());
+        assertEquals(4, heap.max());
+        heap.add(3);
+        assertThrows(FullHeapException.class, () -> heap.add(5));
+        assertEquals(4, heap.deleteMax());
+        assertEquals(3, heap.deleteMax());
+        assertTrue(heap.isEmpty());
+        assertThrows(EmptyHeapException.class, heap::deleteMin);
+    }
+
+    @Test
+    void testRandomOperations() throws FullHeapException, EmptyHeapException {
+        Random random = new Random(42);
+        MinMaxHeap<Integer> heap = new MinMaxHeap<Integer>(1000, Comparator.reverseOrder());
+        // multiset of the elements to check min and max
+        TreeMap<Integer, Integer> reference = new TreeMap<>(Comparator.reverseOrder());
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(3);
+            if (heap.size() < 1000 && (operation == 0 || heap.isEmpty())) {
+                int e = random.nextInt(200);
+                heap.add(e);
+                reference.merge(e, 1, Integer::sum);
+            } else {
+                int e = operation == 1 ? heap.deleteMin() : heap.deleteMax();
+                assertEquals(operation == 1 ? reference.firstKey() : reference.lastKey(), e);
+                reference.computeIfPresent(e, (k, count) -> count == 1 ? null : count - 1);
+            }
+            if (!heap.isEmpty()) {
+                assertEquals(reference.firstKey(), heap.min());
+                assertEquals(reference.lastKey(), heap.max());
+            }
+        }
+    }
+}
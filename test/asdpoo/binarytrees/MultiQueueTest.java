@@ -0,0 +1,89 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiQueueTest {
+
+    @Test
+    void testSingleShardIsStrict() throws FullHeapException, EmptyHeapException {
+        MultiQueue<Integer> queue = new MultiQueue<Integer>(1, Comparator.reverseOrder());
+        for (int i : new int[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6})
+            queue.add(i);
+        assertEquals(12, queue.size());
+        assertEquals(1, queue.extreme());
+        for (int i = 1; i <= 12; i++)
+            assertEquals(i, queue.deleteExtreme());
+        assertTrue(queue.isEmpty());
+        assertThrows(EmptyHeapException.class, queue::deleteExtreme);
+        assertThrows(EmptyHeapException.class, queue::extreme);
+    }
+
+    @Test
+    void testRelaxedOrder() throws FullHeapException, EmptyHeapException {
+        int nbShards = 8;
+        int n = 10_000;
+        MultiQueue<Integer> queue = new MultiQueue<Integer>(nbShards, Comparator.reverseOrder());
+        for (int i = 0; i < n; i++)
+            queue.add(i);
+        // the elements 0 .. i-1 were already deleted, so i - e is the rank error
+        long totalRankError = 0;
+        boolean[] seen = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            int e = queue.deleteExtreme();
+            assertFalse(seen[e]);
+            seen[e] = true;
+            int smaller = 0;
+            for (int j = 0; j < e; j++)
+                if (!seen[j])
+                    smaller++;
+            totalRankError += smaller;
+        }
+        assertTrue(queue.isEmpty());
+        double averageRankError = (double) totalRankError / n;
+        System.out.println("Average rank error with " + nbShards + " shards : " + averageRankError);
+        assertTrue(averageRankError < 4 * nbShards);
+    }
+
+    @Test
+    void testConcurrentAddAndDelete() throws InterruptedException {
+        int nbThreads = 4;
+        int perThread = 10_000;
+        MultiQueue<Integer> queue = new MultiQueue<Integer>(2 * nbThreads, Comparator.naturalOrder());
+        ConcurrentLinkedQueue<Integer> deleted = new ConcurrentLinkedQueue<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < nbThreads; t++) {
+            int first = t * perThread;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = first; i < first + perThread; i++) {
+                        queue.add(i);
+                        if (i % 2 == 0)
+                            deleted.add(queue.deleteExtreme());
+                    }
+                } catch (FullHeapException | EmptyHeapException e) {
+                    throw new IllegalStateException(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(nbThreads * perThread / 2, queue.size());
+        while (!queue.isEmpty()) {
+            try {
+                deleted.add(queue.deleteExtreme());
+            } catch (EmptyHeapException e) {
+                fail("the queue is not empty");
+            }
+        }
+        assertEquals(nbThreads * perThread, deleted.size());
+        assertEquals(nbThreads * perThread, deleted.stream().distinct().count());
+    }
+}
@@ -0,0 +1,91 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapLongHeapTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static long[] buildRandomArray(int size) {
+        Random random = new Random(42);
+        long[] array = new long[size];
+        for (int i = 0; i < size; i++)
+            array[i] = random.nextLong();
+        return array;
+    }
+
+    private static void assertDrainsSorted(OffHeapLongHeap heap, long[] keys) throws EmptyHeapException {
+        long[] sorted = Arrays.copyOf(keys, keys.length);
+        Arrays.sort(sorted);
+        for (long key : sorted)
+            assertEquals(key, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void testDirectHeap() throws IOException, FullHeapException, EmptyHeapException {
+        long[] keys = buildRandomArray(1000);
+        try (OffHeapLongHeap heap = new OffHeapLongHeap(keys.length, HeapOrder.MIN)) {
+            assertThrows(EmptyHeapException.class, heap::extreme);
+            for (long key : keys)
+                heap.add(key);
+            assertThrows(FullHeapException.class, () -> heap.add(0));
+            assertEquals(keys.length, heap.size());
+            heap.delete(keys[10]);
+            heap.add(keys[10]);
+            assertDrainsSorted(heap, keys);
+        }
+    }
+
+    @Test
+    void testPayloadMovesWithKey() throws IOException, FullHeapException, EmptyHeapException {
+        try (OffHeapLongHeap heap = new OffHeapLongHeap(100, Integer.BYTES, HeapOrder.MAX)) {
+            for (int i = 0; i < 100; i++)
+                heap.add((i * 37) % 100, ByteBuffer.allocate(Integer.BYTES).putInt(-((i * 37) % 100)).array());
+            assertThrows(IllegalArgumentException.class, () -> heap.add(1));
+            byte[] payload = new byte[Integer.BYTES];
+            for (int i = 99; i >= 0; i--) {
+                assertEquals(i, heap.deleteExtreme(payload));
+                assertEquals(-i, ByteBuffer.wrap(payload).getInt());
+            }
+        }
+    }
+
+    @Test
+    void testMappedHeapWithSeveralChunks() throws IOException, FullHeapException, EmptyHeapException {
+        Path file = tempDir.resolve("heap.bin");
+        long[] keys = buildRandomArray(1000);
+        // chunks of 64 slots of 16 bytes
+        try (OffHeapLongHeap heap = new OffHeapLongHeap(file, keys.length, 8, HeapOrder.MIN, 64 * 16)) {
+            byte[] payload = new byte[8];
+            for (long key : keys)
+                heap.add(key, ByteBuffer.wrap(payload).putLong(0, ~key).array());
+            assertEquals(keys.length * 16L, Files.size(file));
+            long[] sorted = Arrays.copyOf(keys, keys.length);
+            Arrays.sort(sorted);
+            for (long key : sorted) {
+                assertEquals(key, heap.deleteExtreme(payload));
+                assertEquals(~key, ByteBuffer.wrap(payload).getLong());
+            }
+        }
+    }
+
+    @Test
+    void testClose() throws IOException {
+        OffHeapLongHeap heap = new OffHeapLongHeap(10, HeapOrder.MIN);
+        heap.close();
+        assertThrows(IllegalStateException.class, () -> heap.add(1));
+        assertThrows(IllegalStateException.class, heap::extreme);
+    }
+}
@@ -0,0 +1,100 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairingHeapTest {
+
+    PairingHeap<Integer> heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new PairingHeap<>();
+        for (int i : new int[]{3, 7, 5, 1, 9, 0, 9, 7, 9})
+            heap.add(i);
+    }
+
+    private static void assertDrainsInOrder(PairingHeap<Integer> heap, int... expected) throws EmptyHeapException {
+        for (int e : expected)
+            assertEquals(e, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+        assertThrows(EmptyHeapException.class, heap::extreme);
+    }
+
+    @Test
+    void testDeleteExtreme() throws EmptyHeapException {
+        assertEquals(9, heap.size());
+        assertEquals(9, heap.extreme());
+        assertDrainsInOrder(heap, 9, 9, 9, 7, 7, 5, 3, 1, 0);
+    }
+
+    @Test
+    void testDelete() throws EmptyHeapException {
+        heap.deleteExtreme(); // to get a tree with several levels
+        heap.delete(5);
+        heap.delete(42);
+        assertEquals(7, heap.size());
+        heap.deleteAll(9);
+        assertEquals(5, heap.size());
+        assertFalse(heap.isLeaf(5));
+        assertDrainsInOrder(heap, 7, 7, 3, 1, 0);
+    }
+
+    @Test
+    void testIsLeaf() {
+        PairingHeap<Integer> small = new PairingHeap<>();
+        small.add(1);
+        small.add(2);
+        assertTrue(small.isLeaf(1));
+        assertFalse(small.isLeaf(2));
+        assertFalse(small.isLeaf(3));
+    }
+
+    @Test
+    void testMeld() throws EmptyHeapException {
+        PairingHeap<Integer> other = new PairingHeap<>();
+        other.add(8);
+        other.add(-1);
+        heap.meld(other);
+        heap.meld(heap);
+        assertEquals(11, heap.size());
+        assertTrue(other.isEmpty());
+        assertDrainsInOrder(heap, 9, 9, 9, 8, 7, 7, 5, 3, 1, 0, -1);
+    }
+
+    @Test
+    void testRandomOperations() throws EmptyHeapException {
+        Random random = new Random(42);
+        PairingHeap<Integer> pairing = new PairingHeap<Integer>(Comparator.reverseOrder());
+        BinaryHeap<Integer> reference = new BinaryHeap<Integer>(16, Comparator.reverseOrder(), true);
+        for (int step = 0; step < 20_000; step++) {
+            int e = random.nextInt(1000);
+            try {
+                switch (random.nextInt(4)) {
+                    case 0, 1 -> {
+                        pairing.add(e);
+                        reference.add(e);
+                    }
+                    case 2 -> {
+                        if (!reference.isEmpty())
+                            assertEquals(reference.deleteExtreme(), pairing.deleteExtreme());
+                    }
+                    default -> {
+                        pairing.deleteAll(e);
+                        reference.deleteAll(e);
+                    }
+                }
+            } catch (FullHeapException impossible) {
+                fail(impossible);
+            }
+        }
+        while (!reference.isEmpty())
+            assertEquals(reference.deleteExtreme(), pairing.deleteExtreme());
+        assertTrue(pairing.isEmpty());
+    }
+}
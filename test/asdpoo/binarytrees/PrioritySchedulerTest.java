@@ -0,0 +1,172 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrioritySchedulerTest {
+
+    ExecutorService executor;
+    PriorityScheduler scheduler;
+    CountDownLatch started;
+    CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        scheduler = new PriorityScheduler(executor);
+        started = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        scheduler.shutdown();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Occupy the single worker until release is counted down.
+     */
+    private void blockWorker() throws InterruptedException {
+        scheduler.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testPriorityOrder() throws Exception {
+        blockWorker();
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        for (int priority : new int[]{1, 5, 3, 5, 2})
+            scheduler.submit(() -> order.add(priority), priority);
+        PriorityScheduler.ScheduledTask<String> last = scheduler.submit(() -> "done", -1);
+        assertEquals(6, scheduler.queueDepth());
+        release.countDown();
+        assertEquals("done", last.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(5, 5, 3, 2, 1), order);
+        assertEquals(0, scheduler.queueDepth());
+        assertEquals(7, scheduler.startedCount());
+    }
+
+    @Test
+    void testCancel() throws Exception {
+        blockWorker();
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        PriorityScheduler.ScheduledTask<Boolean> a = scheduler.submit(() -> ran.add("a"), 1);
+        PriorityScheduler.ScheduledTask<Boolean> b = scheduler.submit(() -> ran.add("b"), 2);
+        PriorityScheduler.ScheduledTask<Boolean> c = scheduler.submit(() -> ran.add("c"), 3);
+        assertTrue(b.cancel(false));
+        assertTrue(c.cancel(false));
+        assertFalse(c.cancel(false));
+        assertEquals(1, scheduler.queueDepth());
+        release.countDown();
+        a.get(5, TimeUnit.SECONDS);
+        assertTrue(b.isCancelled());
+        assertEquals(List.of("a"), ran);
+    }
+
+    /**
+     * Cancel many ready and delayed tasks in random order:
+     * only the tasks which are not cancelled run.
+     */
+    @Test
+    void testCancelMany() throws Exception {
+        blockWorker();
+        int n = 20_000;
+        List<PriorityScheduler.ScheduledTask<?>> tasks = new ArrayList<>();
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < n; i++) {
+            int id = i;
+            tasks.add(scheduler.submit(() -> ran.add(id), i % 100));
+            tasks.add(scheduler.schedule(() -> ran.add(-id), i % 100, 1, TimeUnit.HOURS));
+        }
+        PriorityScheduler.ScheduledTask<?> kept = tasks.remove(0);
+        Collections.shuffle(tasks, new Random(42));
+        for (PriorityScheduler.ScheduledTask<?> task : tasks)
+            assertTrue(task.cancel(false));
+        assertEquals(1, scheduler.queueDepth());
+        assertEquals(0, scheduler.delayedCount());
+        release.countDown();
+        kept.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(0), ran);
+    }
+
+    @Test
+    void testDelayedTasks() throws Exception {
+        long start = System.nanoTime();
+        PriorityScheduler.ScheduledTask<Long> late = scheduler.schedule(System::nanoTime, 10, 100, TimeUnit.MILLISECONDS);
+        PriorityScheduler.ScheduledTask<Long> early = scheduler.schedule(System::nanoTime, 0, 20, TimeUnit.MILLISECONDS);
+        PriorityScheduler.ScheduledTask<Long> cancelled = scheduler.schedule(System::nanoTime, 0, 50, TimeUnit.MILLISECONDS);
+        assertEquals(3, scheduler.delayedCount());
+        assertTrue(cancelled.cancel(false));
+        assertEquals(2, scheduler.delayedCount());
+        long earlyTime = early.get(5, TimeUnit.SECONDS);
+        long lateTime = late.get(5, TimeUnit.SECONDS);
+        assertTrue(earlyTime - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(lateTime - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(earlyTime < lateTime);
+        assertThrows(CancellationException.class, () -> cancelled.get(10, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testExceptionsAndLatencies() throws Exception {
+        PriorityScheduler.ScheduledTask<Object> failing = scheduler.submit(() -> {
+            throw new IllegalStateException("failed");
+        }, 0);
+        assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertTrue(scheduler.schedulingLatency(0.5) >= 0);
+        for (int i = 0; i < 100; i++)
+            scheduler.submit(() -> { }, i % 10);
+        scheduler.submit(() -> { }, -1).get(5, TimeUnit.SECONDS);
+        assertEquals(102, scheduler.startedCount());
+        assertTrue(scheduler.schedulingLatency(0.5) <= scheduler.schedulingLatency(0.99));
+        assertTrue(scheduler.schedulingLatency(0.99) <= scheduler.schedulingLatency(1));
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedulingLatency(2));
+    }
+
+    @Test
+    void testShutdown() throws Exception {
+        PriorityScheduler.ScheduledTask<Void> delayed = scheduler.schedule(() -> { }, 0, 1, TimeUnit.HOURS);
+        scheduler.shutdown();
+        assertTrue(delayed.isCancelled());
+        assertEquals(0, scheduler.queueDepth());
+        assertThrows(RejectedExecutionException.class, () -> scheduler.submit(() -> { }, 0));
+    }
+
+    @Test
+    void testOwnPool() throws Exception {
+        try (PriorityScheduler pool = new PriorityScheduler(4)) {
+            List<PriorityScheduler.ScheduledTask<Integer>> tasks = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                int value = i;
+                tasks.add(pool.submit(() -> value, i % 7));
+            }
+            long sum = 0;
+            for (PriorityScheduler.ScheduledTask<Integer> task : tasks)
+                sum += task.get(5, TimeUnit.SECONDS);
+            assertEquals(999 * 1000 / 2, sum);
+        }
+    }
+}
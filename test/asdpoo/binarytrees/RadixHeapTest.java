@@ -0,0 +1,95 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RadixHeapTest {
+
+    RadixHeap heap;
+
+    @BeforeEach
+    void setUp() {
+        heap = new RadixHeap();
+    }
+
+    @Test
+    void testDeleteExtreme() throws EmptyHeapException {
+        assertThrows(EmptyHeapException.class, () -> heap.extreme());
+        assertThrows(EmptyHeapException.class, () -> heap.deleteExtreme());
+        for (long key : new long[]{12, 5, 11, 3, 10, 2, 9, 4, 8, 1, 7, 6, 5})
+            heap.add(key);
+        assertEquals(13, heap.size());
+        assertEquals(1L, heap.extreme());
+        for (long expected : new long[]{1, 2, 3, 4, 5, 5, 6, 7, 8, 9, 10, 11, 12})
+            assertEquals(expected, heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+        assertEquals(12L, heap.lowerBound());
+    }
+
+    @Test
+    void testMonotoneKeys() throws EmptyHeapException {
+        heap.add(10);
+        heap.add(20);
+        assertEquals(10L, heap.deleteExtreme());
+        heap.add(10);
+        assertThrows(IllegalArgumentException.class, () -> heap.add(9));
+        assertEquals(10L, heap.deleteExtreme());
+        assertEquals(20L, heap.deleteExtreme());
+    }
+
+    @Test
+    void testPeekThenAddSmallerKey() throws EmptyHeapException {
+        heap.add(10);
+        assertEquals(10L, heap.extreme());
+        assertEquals(Long.MIN_VALUE, heap.lowerBound());
+        heap.add(5);
+        assertEquals(5L, heap.extreme());
+        heap.add(20);
+        assertEquals(5L, heap.deleteExtreme());
+        assertEquals(5L, heap.lowerBound());
+        assertEquals(10L, heap.extreme());
+        heap.add(7);
+        assertEquals(7L, heap.deleteExtreme());
+        assertEquals(10L, heap.deleteExtreme());
+        assertEquals(20L, heap.deleteExtreme());
+    }
+
+    @Test
+    void testSignedKeys() throws EmptyHeapException {
+        for (long key : new long[]{0, Long.MAX_VALUE, -1, Long.MIN_VALUE, 42, -42})
+            heap.add(key);
+        for (long expected : new long[]{Long.MIN_VALUE, -42, -1, 0, 42, Long.MAX_VALUE})
+            assertEquals(expected, heap.deleteExtreme());
+    }
+
+    @Test
+    void testEventSimulation() throws FullHeapException, EmptyHeapException {
+        Random random = new Random(42);
+        LongBinaryHeap reference = new LongBinaryHeap(100_000, HeapOrder.MIN);
+        for (int i = 0; i < 1000; i++) {
+            long time = random.nextInt(1000);
+            heap.add(time);
+            reference.add(time);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            long now = reference.deleteExtreme();
+            assertEquals(now, heap.deleteExtreme());
+            int nbEvents = random.nextInt(3);
+            for (int j = 0; j < nbEvents; j++) {
+                long time = now + random.nextInt(1 << random.nextInt(20));
+                heap.add(time);
+                reference.add(time);
+            }
+            assertEquals(reference.size(), heap.size());
+            if (reference.isEmpty())
+                break;
+        }
+        while (!reference.isEmpty())
+            assertEquals(reference.deleteExtreme(), heap.deleteExtreme());
+        assertTrue(heap.isEmpty());
+    }
+}
@@ -0,0 +1,64 @@
+package asdpoo.binarytrees;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSelectorTest {
+
+    private static Integer[] buildRandomArray(int size) {
+        Random random = new Random(42);
+        Integer[] array = new Integer[size];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt(size);
+        return array;
+    }
+
+    private static List<Integer> expected(Integer[] array, int k, Comparator<Integer> comparator) {
+        Integer[] copy = Arrays.copyOf(array, array.length);
+        Arrays.sort(copy, comparator.reversed());
+        return Arrays.asList(copy).subList(0, Math.min(k, copy.length));
+    }
+
+    @Test
+    void testSelectFromArray() {
+        Integer[] array = buildRandomArray(10_000);
+        assertEquals(expected(array, 10, Comparator.naturalOrder()),
+                TopKSelector.select(array, 10, Comparator.naturalOrder()));
+        assertEquals(expected(array, 10, Comparator.reverseOrder()),
+                TopKSelector.select(array, 10, Comparator.reverseOrder()));
+    }
+
+    @Test
+    void testSmallInputs() {
+        Integer[] array = {3, 1, 2};
+        assertEquals(List.of(3, 2, 1), TopKSelector.select(array, 5, Comparator.naturalOrder()));
+        assertEquals(List.of(), TopKSelector.select(array, 0, Comparator.naturalOrder()));
+        assertEquals(List.of(), TopKSelector.select(new Integer[0], 3, Comparator.naturalOrder()));
+        assertThrows(IllegalArgumentException.class, () -> new TopKSelector<Integer>(-1));
+    }
+
+    @Test
+    void testSelectFromIteratorAndStream() {
+        Integer[] array = buildRandomArray(10_000);
+        List<Integer> expected = expected(array, 100, Comparator.naturalOrder());
+        assertEquals(expected, TopKSelector.select(Arrays.asList(array).iterator(), 100, Comparator.naturalOrder()));
+        assertEquals(expected, TopKSelector.select(Arrays.stream(array), 100, Comparator.naturalOrder()));
+        assertEquals(expected, Arrays.stream(array).parallel().collect(TopKSelector.collector(100, Comparator.<Integer>naturalOrder())));
+    }
+
+    @Test
+    void testAcceptAndResult() {
+        TopKSelector<Integer> selector = new TopKSelector<>(3);
+        IntStream.rangeClosed(1, 10).boxed().forEach(selector);
+        assertEquals(3, selector.size());
+        assertEquals(List.of(10, 9, 8), selector.result());
+        assertEquals(0, selector.size());
+    }
+}
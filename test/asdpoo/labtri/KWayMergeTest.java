@@ -0,0 +1,76 @@
+package asdpoo.labtri;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KWayMergeTest {
+
+    private static <T> List<T> toList(Iterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        iterator.forEachRemaining(list::add);
+        return list;
+    }
+
+    private static Integer[][] buildSortedRuns(int k, int maxLength) {
+        Random random = new Random(k);
+        Integer[][] runs = new Integer[k][];
+        for (int i = 0; i < k; i++) {
+            runs[i] = new Integer[random.nextInt(maxLength + 1)];
+            for (int j = 0; j < runs[i].length; j++)
+                runs[i][j] = random.nextInt(100);
+            Arrays.sort(runs[i]);
+        }
+        return runs;
+    }
+
+    private static List<Integer> expected(Integer[][] runs) {
+        return Arrays.stream(runs).flatMap(Arrays::stream).sorted().collect(Collectors.toList());
+    }
+
+    @Test
+    void testMergeArrays() {
+        Integer[] a = {1, 4, 7};
+        Integer[] b = {2, 5, 8, 9};
+        Integer[] c = {3, 6};
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), toList(KWayMerge.merge(a, b, c)));
+        assertEquals(List.of(), toList(KWayMerge.merge(new Integer[0][])));
+        assertEquals(List.of(1, 4, 7), toList(KWayMerge.merge(a)));
+        assertEquals(List.of(1, 4, 7), toList(KWayMerge.merge(new Integer[0], a, new Integer[0])));
+        assertThrows(NoSuchElementException.class, () -> KWayMerge.merge(new Integer[0]).next());
+    }
+
+    @Test
+    void testMergeManyRuns() {
+        for (int k : new int[]{1, 2, 3, 5, 8, 13, 64}) {
+            Integer[][] runs = buildSortedRuns(k, 50);
+            assertEquals(expected(runs), toList(KWayMerge.merge(runs)));
+            List<Iterator<Integer>> sources = Arrays.stream(runs).map(r -> Arrays.asList(r).iterator()).collect(Collectors.toList());
+            assertEquals(expected(runs), toList(KWayMerge.mergeWithHeap(sources, Comparator.naturalOrder())));
+        }
+    }
+
+    @Test
+    void testMergeIsStable() {
+        String[] a = {"a1", "b1", "c1"};
+        String[] b = {"a2", "c2"};
+        String[] c = {"b3", "c3"};
+        Comparator<String> byLetter = Comparator.comparing(s -> s.charAt(0));
+        List<String> expected = List.of("a1", "a2", "b1", "b3", "c1", "c2", "c3");
+        assertEquals(expected, toList(KWayMerge.merge(byLetter, a, b, c)));
+        List<Iterator<String>> sources = List.of(List.of(a).iterator(), List.of(b).iterator(), List.of(c).iterator());
+        assertEquals(expected, toList(KWayMerge.mergeWithHeap(sources, byLetter)));
+    }
+
+    @Test
+    void testStreamOfSpliterators() {
+        Integer[][] runs = buildSortedRuns(7, 100);
+        List<Spliterator<Integer>> sources = Arrays.stream(runs).map(r -> Arrays.spliterator(r)).collect(Collectors.toList());
+        assertEquals(expected(runs), KWayMerge.stream(sources, Comparator.<Integer>naturalOrder()).collect(Collectors.toList()));
+        sources = Arrays.stream(runs).map(r -> Arrays.spliterator(r)).collect(Collectors.toList());
+        assertEquals(expected(runs).size(), KWayMerge.stream(sources, Comparator.<Integer>naturalOrder()).spliterator().getExactSizeIfKnown());
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import util.ToolsForPerformance;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.logging.*;
 import java.util.logging.Formatter;
@@ -137,6 +138,33 @@ class PerformanceTest {
     }
 
 
+    /**
+     * Scaling of the parallel quicksort on 10 million elements,
+     * on pools of 1, 2, 4... threads up to the number of processors.
+     */
+    @Test
+    void testCompareParallelQuickSort() {
+        Integer[] array = new Integer[10_000_000];
+        Random random = new Random(42);
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt();
+        Map<String, Runnable> map = new LinkedHashMap<>();
+        map.put("quicksort", () -> QuickSort.sort(array.clone()));
+        int processors = Runtime.getRuntime().availableProcessors();
+        List<ForkJoinPool> pools = new ArrayList<>();
+        for (int p = 1; p <= processors; p = p < processors && 2 * p > processors ? processors : 2 * p) {
+            ForkJoinPool pool = new ForkJoinPool(p);
+            pools.add(pool);
+            map.put("parallel quicksort on " + p + " threads",
+                    () -> QuickSort.parallelSort(array.clone(), Comparator.naturalOrder(), pool));
+        }
+        List<ToolsForPerformance.IdentifiedMeasure<ToolsForPerformance.Measures>> measures =
+                ToolsForPerformance.evaluateMultiplePerformances(map, 5);
+        pools.forEach(ForkJoinPool::shutdown);
+        System.out.println(processors + " processors :");
+        measures.forEach(System.out::println);
+    }
+
     /*   --------------------------------------------------
                   Extracted from last Year
     ------------------------------------------------------- */
@@ -230,7 +258,6 @@ class PerformanceTest {
             return Arrays.copyOf(array, array.length);
         }
 
-        //Quick sort fails on 1000000 elements the stack is too deep
         public static void main(String[] args)  {
             LOGGER.setLevel(Level.INFO);
 
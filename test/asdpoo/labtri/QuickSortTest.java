@@ -1,9 +1,102 @@
 package asdpoo.labtri;
 
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
 class QuickSortTest extends AbstractSortTest{
 
     @Override
     protected void sort(Integer[] array) {
         QuickSort.sort(array);
     }
+
+    private void assertSorts(Integer[] array) {
+        Integer[] expected = Arrays.copyOf(array, array.length);
+        Arrays.sort(expected);
+        sort(array);
+        assertArrayEquals(expected, array);
+    }
+
+    @Test
+    void testLargeArraysDoNotOverflowTheStack() {
+        int size = 1_000_000;
+        Integer[] sorted = new Integer[size];
+        Integer[] reversed = new Integer[size];
+        Integer[] equal = new Integer[size];
+        Integer[] organPipe = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = i;
+            reversed[i] = size - i;
+            equal[i] = 7;
+            organPipe[i] = Math.min(i, size - i);
+        }
+        assertSorts(sorted);
+        assertSorts(reversed);
+        assertSorts(equal);
+        assertSorts(organPipe);
+    }
+
+    @Test
+    void testDuplicateHeavyArray() {
+        Random random = new Random(42);
+        Integer[] array = new Integer[200_000];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt(5);
+        assertSorts(array);
+    }
+
+    @Test
+    void testHeapSortFallback() {
+        Random random = new Random(42);
+        Integer[] array = new Integer[10_000];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt(1000);
+        Integer[] expected = Arrays.copyOf(array, array.length);
+        Arrays.sort(expected);
+        // no partition allowed: the whole array is heapsorted
+        QuickSort.sort(array, 0, array.length - 1, 0, Comparator.<Integer>naturalOrder());
+        assertArrayEquals(expected, array);
+    }
+
+    @Test
+    void testSortWithComparator() {
+        Random random = new Random(42);
+        Integer[] array = new Integer[10_000];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt();
+        Integer[] expected = Arrays.copyOf(array, array.length);
+        Arrays.sort(expected, Comparator.reverseOrder());
+        QuickSort.sort(array, Comparator.reverseOrder());
+        assertArrayEquals(expected, array);
+    }
+
+    @Test
+    void testParallelSort() {
+        Random random = new Random(42);
+        Integer[] array = new Integer[20 * QuickSort.PARALLEL_CUTOFF + 3];
+        for (int i = 0; i < array.length; i++)
+            array[i] = random.nextInt(array.length / 4);
+        Integer[] expected = Arrays.copyOf(array, array.length);
+        Arrays.sort(expected);
+        Integer[] natural = Arrays.copyOf(array, array.length);
+        QuickSort.parallelSort(natural);
+        assertArrayEquals(expected, natural);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Arrays.sort(expected, Comparator.reverseOrder());
+            QuickSort.parallelSort(array, Comparator.reverseOrder(), pool);
+            assertArrayEquals(expected, array);
+            Integer[] small = {3, 1, 2};
+            QuickSort.parallelSort(small, Comparator.naturalOrder(), pool);
+            assertArrayEquals(new Integer[]{1, 2, 3}, small);
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
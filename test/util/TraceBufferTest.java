@@ -0,0 +1,72 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceBufferTest {
+
+    @Test
+    void testRecordAndOverwrite() {
+        TraceBuffer buffer = new TraceBuffer(3);
+        assertEquals(4, buffer.capacity());
+        assertTrue(buffer.events().isEmpty());
+        for (int i = 0; i < 6; i++)
+            buffer.record(Trace.Kind.SIFT, i, 10 * i);
+        assertEquals(6, buffer.recorded());
+        List<TraceBuffer.Event> events = buffer.events();
+        assertEquals(4, events.size());
+        for (int i = 0; i < 4; i++) {
+            TraceBuffer.Event event = events.get(i);
+            assertEquals(i + 2, event.sequence());
+            assertEquals(Trace.Kind.SIFT, event.kind());
+            assertEquals(i + 2, event.first());
+            assertEquals(10 * (i + 2), event.second());
+        }
+    }
+
+    @Test
+    void testClear() {
+        TraceBuffer buffer = new TraceBuffer(8);
+        buffer.record(Trace.Kind.SWAP, 1, 2);
+        buffer.clear();
+        assertEquals(0, buffer.recorded());
+        assertTrue(buffer.events().isEmpty());
+        buffer.record(Trace.Kind.PARTITION, 0, 9);
+        assertEquals(List.of(new TraceBuffer.Event(1, Trace.Kind.PARTITION, 0, 9)), buffer.events());
+        assertThrows(IllegalArgumentException.class, () -> new TraceBuffer(0));
+    }
+
+    @Test
+    void testConcurrentWriters() throws InterruptedException {
+        TraceBuffer buffer = new TraceBuffer(1 << 16);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int id = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++)
+                    buffer.record(Trace.Kind.MERGE, id, i);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        List<TraceBuffer.Event> events = buffer.events();
+        assertEquals(40_000, events.size());
+        // the events of each writer are in its order
+        long[] last = {-1, -1, -1, -1};
+        for (TraceBuffer.Event event : events) {
+            int id = (int) event.first();
+            assertTrue(event.second() > last[id]);
+            last[id] = event.second();
+        }
+    }
+
+    @Test
+    void testTracingIsOffByDefault() {
+        assertFalse(Trace.ENABLED);
+        assertTrue(Trace.events().isEmpty());
+    }
+}